@@ -1,41 +1,68 @@
 package dev.felix2000jp.springapplicationtemplate.auth.application;
 
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.AppuserDto;
+import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.AppuserImportDto;
+import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.AppuserImportRejectionDto;
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.AppuserListDto;
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.CreateAppuserDto;
+import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.ImportAppuserDto;
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.UpdateAppuserDto;
 import dev.felix2000jp.springapplicationtemplate.auth.application.events.AppuserDeletedEvent;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.Appuser;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.AppuserRepository;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityScope;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.AppuserAlreadyExistsException;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.AppuserNotFoundException;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.PasswordHashingRejectedException;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 @Service
-public class AppuserService implements UserDetailsService {
+public class AppuserService implements UserDetailsService, UserDetailsPasswordService {
 
     private static final Logger log = LoggerFactory.getLogger(AppuserService.class);
+    private static final int MAX_REPORTED_IMPORT_REJECTIONS = 100;
+    private static final int IMPORT_BATCH_SIZE = 500;
+    private static final Duration IMPORT_HASH_MIN_BACKOFF = Duration.ofMillis(10);
+    private static final Duration IMPORT_HASH_MAX_BACKOFF = Duration.ofSeconds(1);
 
     private final AppuserRepository appuserRepository;
     private final AppuserMapper appuserMapper;
     private final AppuserPublisher appuserPublisher;
     private final SecurityService securityService;
+    private final Validator validator;
 
     AppuserService(
             AppuserRepository appuserRepository,
             AppuserMapper appuserMapper,
             AppuserPublisher appuserPublisher,
-            SecurityService securityService
+            SecurityService securityService,
+            Validator validator
     ) {
         this.appuserRepository = appuserRepository;
         this.appuserMapper = appuserMapper;
         this.appuserPublisher = appuserPublisher;
         this.securityService = securityService;
+        this.validator = validator;
     }
 
     @Override
@@ -45,6 +72,20 @@ public class AppuserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException(username));
     }
 
+    // Called on login when the stored hash was made with a lower cost than the current one
+    @Override
+    public Appuser updatePassword(UserDetails user, String newPassword) {
+        var appuser = appuserRepository
+                .findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException(user.getUsername()));
+
+        appuser.setPassword(newPassword);
+        appuserRepository.save(appuser);
+        log.info("Appuser with id {} rehashed its password", appuser.getId());
+
+        return appuser;
+    }
+
     public String login() {
         var user = securityService.getUser();
 
@@ -56,20 +97,70 @@ public class AppuserService implements UserDetailsService {
     }
 
     public void register(CreateAppuserDto createAppuserDto) {
-        var doesUsernameExist = appuserRepository.existsByUsername(createAppuserDto.username());
+        // Hashing is by far the slowest step, it runs on another thread while the username is validated
+        var encodedPassword = securityService.generateEncodedPasswordAsync(createAppuserDto.password());
 
-        if (doesUsernameExist) {
-            throw new AppuserAlreadyExistsException();
+        // The insert skips the entity validation Hibernate runs on persist
+        var violations = validator.validateValue(Appuser.class, "username", createAppuserDto.username());
+
+        if (!violations.isEmpty()) {
+            encodedPassword.cancel(false);
+            throw new ConstraintViolationException(violations);
         }
 
-        var appuserToCreate = new Appuser(
-                createAppuserDto.username(),
-                securityService.generateEncodedPassword(createAppuserDto.password())
-        );
+        var appuserToCreate = new Appuser(createAppuserDto.username(), encodedPassword.join());
         appuserToCreate.addScopeApplication();
 
-        appuserRepository.save(appuserToCreate);
-        log.info("Appuser with id {} created with scopes {}", appuserToCreate.getId(), appuserToCreate.getAuthoritiesScopes());
+        // The unique username decides, two concurrent registrations can not both get past it
+        var id = appuserRepository
+                .saveIfUsernameIsAvailable(appuserToCreate)
+                .orElseThrow(AppuserAlreadyExistsException::new);
+        log.info("Appuser with id {} created with scopes {}", id, appuserToCreate.getAuthoritiesScopes());
+    }
+
+    public AppuserImportDto importAppusers(Stream<ImportAppuserDto> importAppuserDtos) {
+        var startedAt = System.nanoTime();
+        var appuserImport = new AppuserImport();
+
+        // One hash in flight per core keeps the hashing threads busy without filling the queue logins share
+        var maxPendingHashes = Runtime.getRuntime().availableProcessors();
+
+        var iterator = importAppuserDtos.iterator();
+        while (iterator.hasNext()) {
+            var importAppuserDto = iterator.next();
+            var line = ++appuserImport.lines;
+            var reason = validateAppuserToImport(importAppuserDto);
+
+            if (reason != null) {
+                appuserImport.reject(line, reason);
+                continue;
+            }
+
+            if (appuserImport.pendingHashes.size() >= maxPendingHashes) {
+                completeOldestHash(appuserImport);
+            }
+
+            try {
+                var encodedPassword = generateEncodedPasswordForImport(appuserImport, importAppuserDto.password());
+                appuserImport.pendingHashes.add(new PendingHash(line, importAppuserDto, encodedPassword));
+            } catch (RuntimeException ex) {
+                appuserImport.reject(line, ex.getMessage());
+            }
+        }
+
+        while (!appuserImport.pendingHashes.isEmpty()) {
+            completeOldestHash(appuserImport);
+        }
+        saveBatch(appuserImport);
+
+        var elapsedNanos = Math.max(System.nanoTime() - startedAt, 1);
+        var rowsPerSecond = appuserImport.lines * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        log.info(
+                "{} appusers imported and {} rejected at {} rows per second",
+                appuserImport.imported, appuserImport.rejected, rowsPerSecond
+        );
+
+        return new AppuserImportDto(appuserImport.imported, appuserImport.rejected, rowsPerSecond, appuserImport.rejections);
     }
 
     public AppuserListDto getAppusers(int pageNumber) {
@@ -123,4 +214,118 @@ public class AppuserService implements UserDetailsService {
         log.info("Published AppuserDeletedEvent with appuserId {}", appuser.getId());
     }
 
+    private String validateAppuserToImport(ImportAppuserDto importAppuserDto) {
+        if (importAppuserDto == null) {
+            return "Line is not a valid appuser";
+        }
+
+        var violations = validator
+                .validate(importAppuserDto)
+                .stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+
+        return violations.isEmpty() ? null : violations;
+    }
+
+    // The hashing pool is shared with logins and registrations, a full queue is an overload that is waited out instead of
+    // a reason to reject the line: the import first finishes its own oldest hash and only backs off when it has none
+    private CompletableFuture<String> generateEncodedPasswordForImport(AppuserImport appuserImport, String password) {
+        var backoff = IMPORT_HASH_MIN_BACKOFF;
+
+        while (true) {
+            try {
+                return securityService.generateEncodedPasswordAsync(password);
+            } catch (PasswordHashingRejectedException ex) {
+                if (!appuserImport.pendingHashes.isEmpty()) {
+                    completeOldestHash(appuserImport);
+                    continue;
+                }
+
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+
+                backoff = backoff.multipliedBy(2).compareTo(IMPORT_HASH_MAX_BACKOFF) < 0
+                        ? backoff.multipliedBy(2)
+                        : IMPORT_HASH_MAX_BACKOFF;
+            }
+        }
+    }
+
+    private void completeOldestHash(AppuserImport appuserImport) {
+        var pendingHash = appuserImport.pendingHashes.poll();
+
+        try {
+            var importAppuserDto = pendingHash.importAppuserDto();
+            var appuserToCreate = new Appuser(importAppuserDto.username(), pendingHash.encodedPassword().join());
+
+            var scopes = importAppuserDto.scopes() == null || importAppuserDto.scopes().isEmpty()
+                    ? List.of(SecurityScope.APPLICATION)
+                    : importAppuserDto.scopes();
+
+            for (var scope : scopes) {
+                switch (scope) {
+                    case ADMIN -> appuserToCreate.addScopeAdmin();
+                    case APPLICATION -> appuserToCreate.addScopeApplication();
+                }
+            }
+
+            appuserImport.batch.add(new PendingAppuser(pendingHash.line(), appuserToCreate));
+        } catch (CompletionException ex) {
+            appuserImport.reject(pendingHash.line(), ex.getCause().getMessage());
+        }
+
+        if (appuserImport.batch.size() >= IMPORT_BATCH_SIZE) {
+            saveBatch(appuserImport);
+        }
+    }
+
+    private void saveBatch(AppuserImport appuserImport) {
+        if (appuserImport.batch.isEmpty()) {
+            return;
+        }
+
+        var appusersToCreate = appuserImport.batch.stream().map(PendingAppuser::appuser).toList();
+        var savedUsernames = new HashSet<>(appuserRepository.saveAllIfUsernamesAreAvailable(appusersToCreate));
+
+        // Removing the username as it is counted also rejects a second line with the same one in this batch
+        for (var pendingAppuser : appuserImport.batch) {
+            if (savedUsernames.remove(pendingAppuser.appuser().getUsername())) {
+                appuserImport.imported++;
+            } else {
+                appuserImport.reject(pendingAppuser.line(), "Username already exists");
+            }
+        }
+
+        appuserImport.batch.clear();
+    }
+
+    private record PendingHash(long line, ImportAppuserDto importAppuserDto, CompletableFuture<String> encodedPassword) {
+    }
+
+    private record PendingAppuser(long line, Appuser appuser) {
+    }
+
+    private static final class AppuserImport {
+
+        private final ArrayDeque<PendingHash> pendingHashes = new ArrayDeque<>();
+        private final List<PendingAppuser> batch = new ArrayList<>();
+        private final List<AppuserImportRejectionDto> rejections = new ArrayList<>();
+        private long lines;
+        private long imported;
+        private long rejected;
+
+        private void reject(long line, String reason) {
+            if (++rejected <= MAX_REPORTED_IMPORT_REJECTIONS) {
+                rejections.add(new AppuserImportRejectionDto(line, reason));
+            }
+        }
+
+    }
+
 }
@@ -0,0 +1,11 @@
+package dev.felix2000jp.springapplicationtemplate.auth.application;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncPasswordEncoder extends PasswordEncoder {
+
+    CompletableFuture<String> encodeAsync(CharSequence rawPassword);
+
+}
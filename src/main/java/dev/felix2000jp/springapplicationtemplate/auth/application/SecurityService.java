@@ -1,35 +1,31 @@
 package dev.felix2000jp.springapplicationtemplate.auth.application;
 
 import dev.felix2000jp.springapplicationtemplate.auth.domain.Appuser;
-import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityScope;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityUser;
 import org.springframework.modulith.NamedInterface;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.Arrays;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @NamedInterface
 public class SecurityService {
 
-    private static final String ID_CLAIM_NAME = "id";
-    private static final String SCOPE_CLAIM_NAME = "scope";
+    public static final String ID_CLAIM_NAME = "id";
+    public static final String SCOPE_CLAIM_NAME = "scope";
+    public static final Duration TOKEN_LIFETIME = Duration.ofHours(12);
 
     private final JwtEncoder jwtEncoder;
-    private final PasswordEncoder passwordEncoder;
+    private final AsyncPasswordEncoder passwordEncoder;
 
-    SecurityService(JwtEncoder jwtEncoder, PasswordEncoder passwordEncoder) {
+    SecurityService(JwtEncoder jwtEncoder, AsyncPasswordEncoder passwordEncoder) {
         this.jwtEncoder = jwtEncoder;
         this.passwordEncoder = passwordEncoder;
     }
@@ -38,18 +34,14 @@ public class SecurityService {
         var authentication = SecurityContextHolder.getContext().getAuthentication();
         var principal = authentication.getPrincipal();
 
-        if (principal instanceof Appuser appuser) {
-            return appuser.toSecurityUser();
+        // Basic and bearer authentication build the user once when the request is authenticated
+        if (principal instanceof SecurityUser securityUser) {
+            return securityUser;
         }
 
-        if (principal instanceof Jwt jwt) {
-            var id = UUID.fromString(jwt.getClaimAsString(ID_CLAIM_NAME));
-            var scopes = Arrays
-                    .stream(jwt.getClaimAsString(SCOPE_CLAIM_NAME).split(" "))
-                    .map(SecurityScope::valueOf)
-                    .collect(Collectors.toSet());
-
-            return new SecurityUser(id, jwt.getSubject(), scopes);
+        // Form login keeps the Appuser loaded by the UserDetailsService as the principal of the session
+        if (principal instanceof Appuser appuser) {
+            return appuser.toSecurityUser();
         }
 
         throw new AccessDeniedException("User authentication is not valid");
@@ -57,7 +49,7 @@ public class SecurityService {
 
     public String generateToken(String subject, String idClaimValue, String scopeClaimValue) {
         var now = Instant.now();
-        var expiration = now.plus(12, ChronoUnit.HOURS);
+        var expiration = now.plus(TOKEN_LIFETIME);
 
         var claims = JwtClaimsSet.builder()
                 .issuer("self")
@@ -75,4 +67,8 @@ public class SecurityService {
         return passwordEncoder.encode(password);
     }
 
+    public CompletableFuture<String> generateEncodedPasswordAsync(String password) {
+        return passwordEncoder.encodeAsync(password);
+    }
+
 }
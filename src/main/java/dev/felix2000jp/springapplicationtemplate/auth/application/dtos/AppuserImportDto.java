@@ -0,0 +1,13 @@
+package dev.felix2000jp.springapplicationtemplate.auth.application.dtos;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record AppuserImportDto(
+        long imported,
+        long rejected,
+        long rowsPerSecond,
+        @NotNull List<AppuserImportRejectionDto> rejections
+) {
+}
@@ -0,0 +1,6 @@
+package dev.felix2000jp.springapplicationtemplate.auth.application.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record AppuserImportRejectionDto(long line, @NotBlank String reason) {
+}
@@ -0,0 +1,19 @@
+package dev.felix2000jp.springapplicationtemplate.auth.application.dtos;
+
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityScope;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.Set;
+
+public record ImportAppuserDto(
+        @NotBlank
+        @Size(min = 5, max = 500)
+        String username,
+        @NotBlank
+        @Size(min = 5, max = 500)
+        String password,
+        Set<@NotNull SecurityScope> scopes
+) {
+}
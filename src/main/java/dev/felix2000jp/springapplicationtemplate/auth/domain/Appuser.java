@@ -1,12 +1,13 @@
 package dev.felix2000jp.springapplicationtemplate.auth.domain;
 
+import dev.felix2000jp.springapplicationtemplate.core.UuidV7Generator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.UuidGenerator;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -16,7 +17,7 @@ import java.util.stream.Collectors;
 public class Appuser implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     @NotNull
     private UUID id;
 
@@ -30,9 +31,9 @@ public class Appuser implements UserDetails {
     @Size(min = 5, max = 500)
     private String password;
 
-    @JoinColumn(name = "appuser_id")
-    @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
-    private Set<AppuserAuthority> authorities;
+    // One bit per SecurityScope, reading a user never has to join another table
+    @Column(name = "scopes")
+    private int scopes;
 
     public Appuser() {
     }
@@ -40,7 +41,6 @@ public class Appuser implements UserDetails {
     public Appuser(String username, String password) {
         this.username = username;
         this.password = password;
-        this.authorities = new HashSet<>();
     }
 
     public UUID getId() {
@@ -59,11 +59,19 @@ public class Appuser implements UserDetails {
 
     @Override
     public Set<AppuserAuthority> getAuthorities() {
-        return authorities;
+        return SecurityScope
+                .fromBits(scopes)
+                .stream()
+                .map(scope -> new AppuserAuthority(scope.name()))
+                .collect(Collectors.toSet());
+    }
+
+    public int getScopeBits() {
+        return scopes;
     }
 
     public Set<String> getAuthoritiesScopes() {
-        return authorities.stream().map(AppuserAuthority::getScope).collect(Collectors.toSet());
+        return SecurityScope.fromBits(scopes).stream().map(Enum::name).collect(Collectors.toSet());
     }
 
     public void setPassword(String password) {
@@ -75,21 +83,15 @@ public class Appuser implements UserDetails {
     }
 
     public void addScopeAdmin() {
-        var adminScopeValue = SecurityScope.ADMIN.name();
-        authorities.add(new AppuserAuthority(adminScopeValue));
+        scopes |= SecurityScope.ADMIN.toBit();
     }
 
     public void addScopeApplication() {
-        var applicationScopeValue = SecurityScope.APPLICATION.name();
-        authorities.add(new AppuserAuthority(applicationScopeValue));
+        scopes |= SecurityScope.APPLICATION.toBit();
     }
 
     public SecurityUser toSecurityUser() {
-        return new SecurityUser(
-                id,
-                username,
-                authorities.stream().map(AppuserAuthority::toSecurityScope).collect(Collectors.toSet())
-        );
+        return new SecurityUser(id, username, SecurityScope.fromBits(scopes));
     }
 
 }
@@ -1,27 +1,12 @@
 package dev.felix2000jp.springapplicationtemplate.auth.domain;
 
-import jakarta.persistence.*;
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
 import org.springframework.security.core.GrantedAuthority;
 
-import java.util.UUID;
+import java.util.Objects;
 
-@Table(name = "appuser_authority")
-@Entity
 public class AppuserAuthority implements GrantedAuthority {
 
-    @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    @NotNull
-    private UUID id;
-
-    @Column(name = "scope")
-    @NotBlank
-    private String scope;
-
-    public AppuserAuthority() {
-    }
+    private final String scope;
 
     public AppuserAuthority(String scope) {
         this.scope = scope;
@@ -40,4 +25,14 @@ public class AppuserAuthority implements GrantedAuthority {
         return SecurityScope.valueOf(scope);
     }
 
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof AppuserAuthority that && Objects.equals(scope, that.scope);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(scope);
+    }
+
 }
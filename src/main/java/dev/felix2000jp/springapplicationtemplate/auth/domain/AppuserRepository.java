@@ -2,6 +2,7 @@ package dev.felix2000jp.springapplicationtemplate.auth.domain;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public interface AppuserRepository {
@@ -20,4 +21,8 @@ public interface AppuserRepository {
 
     void save(Appuser appuser);
 
+    Optional<UUID> saveIfUsernameIsAvailable(Appuser appuser);
+
+    Set<String> saveAllIfUsernamesAreAvailable(List<Appuser> appusers);
+
 }
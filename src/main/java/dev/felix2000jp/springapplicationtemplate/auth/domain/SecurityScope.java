@@ -2,14 +2,40 @@ package dev.felix2000jp.springapplicationtemplate.auth.domain;
 
 import org.springframework.modulith.NamedInterface;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 @NamedInterface
 public enum SecurityScope {
 
-    ADMIN,
-    APPLICATION;
+    // The bits are stored in appuser.scopes, existing ones must never change
+    ADMIN(1),
+    APPLICATION(1 << 1);
+
+    private final int bit;
+
+    SecurityScope(int bit) {
+        this.bit = bit;
+    }
 
     public String toAuthority() {
         return "SCOPE_" + name();
     }
 
+    public int toBit() {
+        return bit;
+    }
+
+    public static Set<SecurityScope> fromBits(int bits) {
+        var scopes = EnumSet.noneOf(SecurityScope.class);
+
+        for (var scope : values()) {
+            if ((bits & scope.bit) != 0) {
+                scopes.add(scope);
+            }
+        }
+
+        return scopes;
+    }
+
 }
@@ -1,13 +1,19 @@
 package dev.felix2000jp.springapplicationtemplate.auth.domain;
 
 import org.springframework.modulith.NamedInterface;
+import org.springframework.security.core.AuthenticatedPrincipal;
 
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @NamedInterface
-public record SecurityUser(UUID id, String username, Set<SecurityScope> scopes) {
+public record SecurityUser(UUID id, String username, Set<SecurityScope> scopes) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
 
     public Set<String> getScopesAsStrings() {
         return scopes.stream().map(Enum::name).collect(Collectors.toSet());
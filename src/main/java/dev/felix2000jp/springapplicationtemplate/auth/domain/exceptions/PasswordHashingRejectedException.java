@@ -0,0 +1,12 @@
+package dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+// An InternalAuthenticationServiceException stops the ProviderManager from retrying the same hash with other providers
+public class PasswordHashingRejectedException extends InternalAuthenticationServiceException {
+
+    public PasswordHashingRejectedException() {
+        super("Too many passwords are being hashed, try again later");
+    }
+
+}
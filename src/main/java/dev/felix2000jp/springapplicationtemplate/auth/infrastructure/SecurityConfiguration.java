@@ -1,40 +1,60 @@
 package dev.felix2000jp.springapplicationtemplate.auth.infrastructure;
 
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityScope;
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.BasicCredentialsCache;
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.CachingAuthenticationProvider;
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.CachingJwtDecoder;
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.JwtKeyRing;
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.KeyRingJwtEncoder;
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.KeyRingJwtProcessor;
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.PasswordHashingRejectedEntryPoint;
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.SecurityUserJwtAuthenticationConverter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.config.Customizer;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
 import org.springframework.security.web.SecurityFilterChain;
-
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
 
 @Configuration
 @EnableWebSecurity
 class SecurityConfiguration {
 
-    @Value("${jwt.rsa.public-key}")
-    private RSAPublicKey publicKey;
-
-    @Value("${jwt.rsa.private-key}")
-    private RSAPrivateKey privateKey;
+    @Value("${jwt.cache.maximum-size}")
+    private long jwtCacheMaximumSize;
 
     @Bean
-    SecurityFilterChain apiAuthFilterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain apiAuthFilterChain(
+            HttpSecurity http,
+            UserDetailsService userDetailsService,
+            UserDetailsPasswordService userDetailsPasswordService,
+            PasswordEncoder passwordEncoder,
+            BasicCredentialsCache basicCredentialsCache,
+            JwtDecoder jwtDecoder
+    ) throws Exception {
+        var daoAuthenticationProvider = new DaoAuthenticationProvider(passwordEncoder);
+        daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        daoAuthenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
+
+        var jwtAuthenticationProvider = new JwtAuthenticationProvider(jwtDecoder);
+        jwtAuthenticationProvider.setJwtAuthenticationConverter(new SecurityUserJwtAuthenticationConverter());
+
+        var basicAuthenticationEntryPoint = new BasicAuthenticationEntryPoint();
+        basicAuthenticationEntryPoint.setRealmName("Realm");
+
         return http
                 .securityMatcher("/api/**")
                 .authorizeHttpRequests(authorize -> authorize
@@ -49,8 +69,14 @@ class SecurityConfiguration {
                 )
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .httpBasic(Customizer.withDefaults())
-                .oauth2ResourceServer(c -> c.jwt(Customizer.withDefaults()))
+                // Managers without a parent, a failed password is not checked again by the global DaoAuthenticationProvider
+                .authenticationManager(new ProviderManager(
+                        new CachingAuthenticationProvider(daoAuthenticationProvider, basicCredentialsCache)
+                ))
+                .httpBasic(basic -> basic.authenticationEntryPoint(
+                        new PasswordHashingRejectedEntryPoint(basicAuthenticationEntryPoint)
+                ))
+                .oauth2ResourceServer(c -> c.jwt(jwt -> jwt.authenticationManager(new ProviderManager(jwtAuthenticationProvider))))
                 .build();
     }
 
@@ -70,20 +96,14 @@ class SecurityConfiguration {
     }
 
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
-    @Bean
-    JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(publicKey).build();
+    JwtDecoder jwtDecoder(JwtKeyRing jwtKeyRing, MeterRegistry meterRegistry) {
+        var jwtDecoder = new NimbusJwtDecoder(new KeyRingJwtProcessor(jwtKeyRing));
+        return new CachingJwtDecoder(jwtDecoder, jwtCacheMaximumSize, meterRegistry);
     }
 
     @Bean
-    JwtEncoder jwtEncoder() {
-        var jwk = new RSAKey.Builder(publicKey).privateKey(privateKey).build();
-        var jwkImmutableSet = new ImmutableJWKSet<>(new JWKSet(jwk));
-        return new NimbusJwtEncoder(jwkImmutableSet);
+    JwtEncoder jwtEncoder(JwtKeyRing jwtKeyRing) {
+        return new KeyRingJwtEncoder(jwtKeyRing);
     }
 
 }
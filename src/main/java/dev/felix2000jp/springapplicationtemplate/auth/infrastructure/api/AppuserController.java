@@ -1,17 +1,27 @@
 package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.api;
 
 import dev.felix2000jp.springapplicationtemplate.auth.application.AppuserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.AppuserDto;
+import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.AppuserImportDto;
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.AppuserListDto;
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.CreateAppuserDto;
+import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.ImportAppuserDto;
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.UpdateAppuserDto;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 
 @Validated
 @RestController
@@ -19,9 +29,11 @@ import java.net.URI;
 class AppuserController {
 
     private final AppuserService appuserService;
+    private final ObjectMapper objectMapper;
 
-    AppuserController(AppuserService appuserService) {
+    AppuserController(AppuserService appuserService, ObjectMapper objectMapper) {
         this.appuserService = appuserService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/login")
@@ -43,6 +55,15 @@ class AppuserController {
         return ResponseEntity.ok(body);
     }
 
+    @PostMapping(value = "/admin/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<AppuserImportDto> importAppusers(InputStream inputStream) throws IOException {
+        try (var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            var importAppuserDtos = reader.lines().map(this::parseImportAppuserDto);
+            var body = appuserService.importAppusers(importAppuserDtos);
+            return ResponseEntity.ok(body);
+        }
+    }
+
     @GetMapping
     ResponseEntity<AppuserDto> getAppuserForCurrentUser() {
         var body = appuserService.getAppuserForCurrentUser();
@@ -61,4 +82,12 @@ class AppuserController {
         return ResponseEntity.noContent().build();
     }
 
+    private ImportAppuserDto parseImportAppuserDto(String line) {
+        try {
+            return objectMapper.readValue(line, ImportAppuserDto.class);
+        } catch (JsonProcessingException ex) {
+            return null;
+        }
+    }
+
 }
@@ -2,8 +2,10 @@ package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.api;
 
 import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.AppuserAlreadyExistsException;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.AppuserNotFoundException;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.PasswordHashingRejectedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -32,4 +34,12 @@ class AppuserExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.of(problemDetails).build();
     }
 
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    ResponseEntity<ProblemDetail> handlePasswordHashingRejectedException(PasswordHashingRejectedException ex) {
+        var problemDetails = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
+
+        log.warn(ex.getMessage());
+        return ResponseEntity.of(problemDetails).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
 }
@@ -0,0 +1,36 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.api;
+
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.JwtKeyRing;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+class JwtKeyController {
+
+    private static final Duration JWKS_MAX_AGE = Duration.ofMinutes(5);
+
+    private final JwtKeyRing jwtKeyRing;
+
+    JwtKeyController(JwtKeyRing jwtKeyRing) {
+        this.jwtKeyRing = jwtKeyRing;
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    ResponseEntity<Map<String, Object>> getJwkSet() {
+        var body = jwtKeyRing.getPublicJwkSet();
+        return ResponseEntity.ok().cacheControl(CacheControl.maxAge(JWKS_MAX_AGE).cachePublic()).body(body);
+    }
+
+    @PostMapping("/api/appusers/admin/jwt-keys/rotate")
+    ResponseEntity<Void> rotateJwtKeys() {
+        jwtKeyRing.rotate();
+        return ResponseEntity.noContent().build();
+    }
+
+}
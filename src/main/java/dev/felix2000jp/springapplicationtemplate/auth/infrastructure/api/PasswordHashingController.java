@@ -0,0 +1,30 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.api;
+
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.BoundedPasswordEncoder;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Validated
+@RestController
+@RequestMapping("/api/appusers/admin/password-hashing")
+class PasswordHashingController {
+
+    private final BoundedPasswordEncoder boundedPasswordEncoder;
+
+    PasswordHashingController(BoundedPasswordEncoder boundedPasswordEncoder) {
+        this.boundedPasswordEncoder = boundedPasswordEncoder;
+    }
+
+    @PutMapping("/cost")
+    ResponseEntity<Void> updateCost(@RequestParam @Min(4) @Max(31) int cost) {
+        boundedPasswordEncoder.setCost(cost);
+        return ResponseEntity.noContent().build();
+    }
+
+}
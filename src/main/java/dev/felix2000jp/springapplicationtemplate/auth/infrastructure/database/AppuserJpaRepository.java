@@ -2,6 +2,7 @@ package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.database;
 
 import dev.felix2000jp.springapplicationtemplate.auth.domain.Appuser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -14,4 +15,12 @@ interface AppuserJpaRepository extends JpaRepository<Appuser, UUID> {
 
     boolean existsByUsername(String username);
 
+    @Query(value = """
+            INSERT INTO appuser (id, username, password, scopes)
+            VALUES (:id, :username, :password, :scopes)
+            ON CONFLICT (username) DO NOTHING
+            RETURNING id
+            """, nativeQuery = true)
+    Optional<UUID> insertIfUsernameIsAvailable(UUID id, String username, String password, int scopes);
+
 }
\ No newline at end of file
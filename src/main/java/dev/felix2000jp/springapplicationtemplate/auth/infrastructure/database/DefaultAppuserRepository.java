@@ -2,12 +2,18 @@ package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.database;
 
 import dev.felix2000jp.springapplicationtemplate.auth.domain.Appuser;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.AppuserRepository;
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.BasicCredentialsCache;
+import dev.felix2000jp.springapplicationtemplate.core.UuidV7Generator;
+import dev.felix2000jp.springapplicationtemplate.core.database.ReadYourWrites;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -15,10 +21,26 @@ class DefaultAppuserRepository implements AppuserRepository {
 
     private static final int PAGE_SIZE = 50;
 
+    // One statement per batch, the arrays are unnested into rows so the batch size never changes the SQL
+    private static final String INSERT_ALL_SQL = """
+            INSERT INTO appuser (id, username, password, scopes)
+            SELECT * FROM unnest(?::uuid[], ?::text[], ?::text[], ?::integer[])
+            ON CONFLICT (username) DO NOTHING
+            RETURNING username
+            """;
+
     private final AppuserJpaRepository appuserJpaRepository;
+    private final BasicCredentialsCache basicCredentialsCache;
+    private final JdbcTemplate jdbcTemplate;
 
-    DefaultAppuserRepository(AppuserJpaRepository appuserJpaRepository) {
+    DefaultAppuserRepository(
+            AppuserJpaRepository appuserJpaRepository,
+            BasicCredentialsCache basicCredentialsCache,
+            JdbcTemplate jdbcTemplate
+    ) {
         this.appuserJpaRepository = appuserJpaRepository;
+        this.basicCredentialsCache = basicCredentialsCache;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     @Override
@@ -57,12 +79,65 @@ class DefaultAppuserRepository implements AppuserRepository {
     @Transactional
     public void deleteById(UUID id) {
         appuserJpaRepository.deleteById(id);
+        basicCredentialsCache.evictAllByAppuserId(id);
     }
 
     @Override
     @Transactional
     public void save(Appuser appuser) {
         appuserJpaRepository.save(appuser);
+        basicCredentialsCache.evictAllByAppuserId(appuser.getId());
+        // The next request may already authenticate with a changed username
+        ReadYourWrites.recordWriteBy(appuser.getUsername());
+    }
+
+    @Override
+    @Transactional
+    public Optional<UUID> saveIfUsernameIsAvailable(Appuser appuser) {
+        var id = appuserJpaRepository.insertIfUsernameIsAvailable(
+                UuidV7Generator.next(),
+                appuser.getUsername(),
+                appuser.getPassword(),
+                appuser.getScopeBits()
+        );
+        // Nobody is authenticated while registering, the login right after it has to find the appuser on the primary
+        id.ifPresent(unused -> ReadYourWrites.recordWriteBy(appuser.getUsername()));
+        return id;
+    }
+
+    @Override
+    @Transactional
+    public Set<String> saveAllIfUsernamesAreAvailable(List<Appuser> appusers) {
+        if (appusers.isEmpty()) {
+            return Set.of();
+        }
+
+        var ids = new Object[appusers.size()];
+        var usernames = new Object[appusers.size()];
+        var passwords = new Object[appusers.size()];
+        var scopes = new Object[appusers.size()];
+
+        for (var i = 0; i < appusers.size(); i++) {
+            var appuser = appusers.get(i);
+            ids[i] = UuidV7Generator.next();
+            usernames[i] = appuser.getUsername();
+            passwords[i] = appuser.getPassword();
+            scopes[i] = appuser.getScopeBits();
+        }
+
+        var savedUsernames = jdbcTemplate.query(
+                connection -> {
+                    var statement = connection.prepareStatement(INSERT_ALL_SQL);
+                    statement.setArray(1, connection.createArrayOf("uuid", ids));
+                    statement.setArray(2, connection.createArrayOf("text", usernames));
+                    statement.setArray(3, connection.createArrayOf("text", passwords));
+                    statement.setArray(4, connection.createArrayOf("integer", scopes));
+                    return statement;
+                },
+                (rs, rowNum) -> rs.getString("username")
+        );
+
+        return new HashSet<>(savedUsernames);
     }
 
 }
@@ -0,0 +1,99 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.felix2000jp.springapplicationtemplate.core.CacheEviction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class BasicCredentialsCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    // The key only lives in memory and changes on every start, the entries can not be used to test passwords offline
+    private final SecretKey key;
+    private final Cache<String, VerifiedCredentials> cache;
+
+    // Bumped on every eviction. The appuser is only known once the password is verified, so the counter is not kept per
+    // appuser. Evictions are rare and a skipped put only costs one more verification.
+    private final AtomicLong generation = new AtomicLong();
+
+    BasicCredentialsCache(
+            MeterRegistry meterRegistry,
+            @Value("${auth.basic-cache.maximum-size}") long maximumSize,
+            @Value("${auth.basic-cache.expire-after-write-in-seconds}") int expireAfterWriteInSeconds
+    ) {
+        try {
+            this.key = KeyGenerator.getInstance(HMAC_ALGORITHM).generateKey();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        this.cache = Caffeine
+                .newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteInSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "basic-credentials");
+    }
+
+    public void evictAllByAppuserId(UUID appuserId) {
+        CacheEviction.evictNowAndAfterCompletion(() -> {
+            generation.incrementAndGet();
+            cache.asMap().values().removeIf(entry -> entry.appuserId().equals(appuserId));
+        });
+    }
+
+    long generation() {
+        return generation.get();
+    }
+
+    VerifiedCredentials get(String username, String password) {
+        return cache.getIfPresent(hash(username, password));
+    }
+
+    // A verification that read the hash before an eviction must not cache it. Checking after the put also covers an
+    // eviction that ran between the check and the put.
+    void put(String username, String password, VerifiedCredentials verifiedCredentials, long generationBeforeVerification) {
+        var key = hash(username, password);
+        cache.put(key, verifiedCredentials);
+
+        if (generation.get() != generationBeforeVerification) {
+            cache.invalidate(key);
+        }
+    }
+
+    private String hash(String username, String password) {
+        try {
+            var mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    record VerifiedCredentials(UUID appuserId, Object principal, Collection<? extends GrantedAuthority> authorities) {
+    }
+
+}
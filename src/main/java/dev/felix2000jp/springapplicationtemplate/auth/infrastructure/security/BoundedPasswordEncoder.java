@@ -0,0 +1,147 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import dev.felix2000jp.springapplicationtemplate.auth.application.AsyncPasswordEncoder;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// BCrypt burns a core for each hash, running it on request threads lets a burst of logins or registrations starve
+// every other endpoint. Hashes run on one thread per core instead and are rejected once the queue is full.
+@Component
+public class BoundedPasswordEncoder implements AsyncPasswordEncoder, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeQueueTimer;
+    private final Timer matchesQueueTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    private volatile BCryptPasswordEncoder delegate;
+
+    BoundedPasswordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${auth.password-hashing.queue-capacity}") int queueCapacity,
+            @Value("${auth.password-hashing.cost}") int cost
+    ) {
+        var threads = Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.delegate = new BCryptPasswordEncoder(cost);
+
+        this.encodeQueueTimer = queueTimer(meterRegistry, "encode");
+        this.matchesQueueTimer = queueTimer(meterRegistry, "matches");
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.rejectedCounter = Counter
+                .builder("password.hashing.rejected")
+                .description("Hashes rejected because the password hashing queue was full")
+                .register(meterRegistry);
+
+        new ExecutorServiceMetrics(executor, "password-hashing", List.of()).bindTo(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return join(encodeAsync(rawPassword));
+    }
+
+    @Override
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        var encoder = delegate;
+        return submit(encodeQueueTimer, encodeTimer, () -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        var encoder = delegate;
+        return join(submit(matchesQueueTimer, matchesTimer, () -> encoder.matches(rawPassword, encodedPassword)));
+    }
+
+    // Hashes with a lower cost than the current one are rehashed by the DaoAuthenticationProvider on login
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void setCost(int cost) {
+        delegate = new BCryptPasswordEncoder(cost);
+        log.info("Password hashing cost set to {}", cost);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> submit(Timer queueTimer, Timer hashTimer, Supplier<T> hash) {
+        var submittedAt = System.nanoTime();
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.record(hash);
+            }, executor);
+        } catch (RejectedExecutionException ex) {
+            rejectedCounter.increment();
+            throw new PasswordHashingRejectedException();
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static Timer queueTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer
+                .builder("password.hashing.queue")
+                .description("Time a password waited for a hashing thread")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer
+                .builder("password.hashing.duration")
+                .description("Time taken to hash a password")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+}
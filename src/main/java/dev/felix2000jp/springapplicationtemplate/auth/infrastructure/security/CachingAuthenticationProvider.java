@@ -0,0 +1,61 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import dev.felix2000jp.springapplicationtemplate.auth.domain.Appuser;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final BasicCredentialsCache basicCredentialsCache;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, BasicCredentialsCache basicCredentialsCache) {
+        this.delegate = delegate;
+        this.basicCredentialsCache = basicCredentialsCache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        if (!(authentication.getCredentials() instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+
+        var username = authentication.getName();
+        var cached = basicCredentialsCache.get(username, password);
+
+        if (cached != null) {
+            // A new token per request, the cached one must not pick up the details of whoever used it first
+            var result = UsernamePasswordAuthenticationToken.authenticated(cached.principal(), null, cached.authorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+
+        // Failed verifications throw and are never cached
+        var generation = basicCredentialsCache.generation();
+        var result = delegate.authenticate(authentication);
+
+        if (result != null && result.getPrincipal() instanceof Appuser appuser) {
+            // The entity is swapped for the user built from it, services then read it without converting it again
+            var securityUser = appuser.toSecurityUser();
+            basicCredentialsCache.put(
+                    username,
+                    password,
+                    new BasicCredentialsCache.VerifiedCredentials(appuser.getId(), securityUser, result.getAuthorities()),
+                    generation
+            );
+
+            var securityUserResult = UsernamePasswordAuthenticationToken.authenticated(securityUser, null, result.getAuthorities());
+            securityUserResult.setDetails(result.getDetails());
+            return securityUserResult;
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+}
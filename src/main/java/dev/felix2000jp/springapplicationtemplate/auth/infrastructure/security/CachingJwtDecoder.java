@@ -0,0 +1,83 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> cache;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cache = Caffeine
+                .newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpireAtJwtExpiration())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt");
+    }
+
+    @Override
+    public Jwt decode(String token) {
+        var digest = digest(token);
+        var cached = cache.getIfPresent(digest);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        // Invalid tokens throw and are never cached, tokens without an expiration are verified every time
+        var jwt = delegate.decode(token);
+
+        if (jwt.getExpiresAt() != null) {
+            cache.put(digest, jwt);
+        }
+
+        return jwt;
+    }
+
+    private static String digest(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static class ExpireAtJwtExpiration implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(String digest, Jwt jwt, long currentTime) {
+            var remaining = Duration.between(Instant.now(), jwt.getExpiresAt());
+            return remaining.isNegative() ? 0 : remaining.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
@@ -0,0 +1,54 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import com.google.crypto.tink.Aead;
+import com.google.crypto.tink.subtle.AesGcmJce;
+import com.nimbusds.jose.jwk.JWK;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.text.ParseException;
+import java.util.Base64;
+
+// Encrypts the private JWKs stored in jwt_key with a key that only lives in the configuration, the kid is bound to the
+// ciphertext so a stored key can not be moved to another row
+@Component
+class JwkCipher {
+
+    private final Aead aead;
+
+    JwkCipher(@Value("${jwt.keys.encryption-key}") String encryptionKey) {
+        if (encryptionKey == null || encryptionKey.isBlank()) {
+            throw new IllegalStateException("jwt.keys.encryption-key is not set, pass it through JWT_KEYS_ENCRYPTION_KEY");
+        }
+
+        try {
+            this.aead = new AesGcmJce(Base64.getDecoder().decode(encryptionKey));
+        } catch (IllegalArgumentException | GeneralSecurityException ex) {
+            throw new IllegalStateException("jwt.keys.encryption-key must be a base64 encoded 16 or 32 byte AES key", ex);
+        }
+    }
+
+    byte[] encrypt(JWK jwk) {
+        try {
+            return aead.encrypt(jwk.toJSONString().getBytes(StandardCharsets.UTF_8), associatedData(jwk.getKeyID()));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Could not encrypt the JWT signing key " + jwk.getKeyID(), ex);
+        }
+    }
+
+    JWK decrypt(String kid, byte[] encryptedJwk) {
+        try {
+            var jwk = aead.decrypt(encryptedJwk, associatedData(kid));
+            return JWK.parse(new String(jwk, StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException | ParseException ex) {
+            throw new IllegalStateException("Could not decrypt the JWT signing key " + kid, ex);
+        }
+    }
+
+    private static byte[] associatedData(String kid) {
+        return kid.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,76 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.Ed25519Verifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.crypto.factories.DefaultJWSSignerFactory;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+public enum JwtAlgorithm {
+
+    RS256(JWSAlgorithm.RS256) {
+        @Override
+        JWK generate(String kid) throws JOSEException {
+            return new RSAKeyGenerator(2048).keyID(kid).algorithm(jwsAlgorithm()).keyUse(KeyUse.SIGNATURE).generate();
+        }
+
+        @Override
+        JWSVerifier verifier(JWK jwk) throws JOSEException {
+            return new RSASSAVerifier(jwk.toRSAKey());
+        }
+    },
+
+    ES256(JWSAlgorithm.ES256) {
+        @Override
+        JWK generate(String kid) throws JOSEException {
+            return new ECKeyGenerator(Curve.P_256).keyID(kid).algorithm(jwsAlgorithm()).keyUse(KeyUse.SIGNATURE).generate();
+        }
+
+        @Override
+        JWSVerifier verifier(JWK jwk) throws JOSEException {
+            return new ECDSAVerifier(jwk.toECKey());
+        }
+    },
+
+    EdDSA(JWSAlgorithm.EdDSA) {
+        @Override
+        JWK generate(String kid) throws JOSEException {
+            return new OctetKeyPairGenerator(Curve.Ed25519).keyID(kid).algorithm(jwsAlgorithm()).keyUse(KeyUse.SIGNATURE).generate();
+        }
+
+        @Override
+        JWSVerifier verifier(JWK jwk) throws JOSEException {
+            return new Ed25519Verifier(jwk.toOctetKeyPair().toPublicJWK());
+        }
+    };
+
+    private static final DefaultJWSSignerFactory SIGNER_FACTORY = new DefaultJWSSignerFactory();
+
+    private final JWSAlgorithm jwsAlgorithm;
+
+    JwtAlgorithm(JWSAlgorithm jwsAlgorithm) {
+        this.jwsAlgorithm = jwsAlgorithm;
+    }
+
+    JWSAlgorithm jwsAlgorithm() {
+        return jwsAlgorithm;
+    }
+
+    JWSSigner signer(JWK jwk) throws JOSEException {
+        return SIGNER_FACTORY.createJWSSigner(jwk, jwsAlgorithm);
+    }
+
+    abstract JWK generate(String kid) throws JOSEException;
+
+    abstract JWSVerifier verifier(JWK jwk) throws JOSEException;
+
+}
@@ -0,0 +1,247 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import dev.felix2000jp.springapplicationtemplate.auth.application.SecurityService;
+import dev.felix2000jp.springapplicationtemplate.core.UuidV7Generator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class JwtKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private static final String SELECT_KEYS_SQL = """
+            SELECT kid, algorithm, public_jwk, encrypted_jwk, created_at FROM jwt_key ORDER BY created_at
+            """;
+    private static final String ROTATION_LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('jwt_key_rotation'))";
+    private static final String COUNT_ACTIVE_KEYS_SQL = """
+            SELECT count(*)
+            FROM jwt_key
+            WHERE algorithm = ? AND encrypted_jwk IS NOT NULL AND created_at > now() - make_interval(hours => ?)
+            """;
+    private static final String INSERT_KEY_SQL = """
+            INSERT INTO jwt_key (kid, algorithm, public_jwk, encrypted_jwk) VALUES (?, ?, ?, ?)
+            """;
+    private static final String DELETE_RETIRED_KEYS_SQL = """
+            DELETE FROM jwt_key WHERE created_at <= now() - make_interval(hours => ?)
+            """;
+
+    // Tokens signed by another instance with a key this one has not loaded yet trigger a reload, at most this often
+    private static final Duration UNKNOWN_KID_RELOAD_INTERVAL = Duration.ofSeconds(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JwkCipher jwkCipher;
+    private final JwtAlgorithm algorithm;
+    private final int rotationIntervalInHours;
+    private final int retentionInHours;
+
+    private volatile Keys keys;
+    private volatile Instant loadedAt = Instant.EPOCH;
+
+    JwtKeyRing(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            JwkCipher jwkCipher,
+            @Value("${jwt.algorithm}") JwtAlgorithm algorithm,
+            @Value("${jwt.keys.rotation-interval-in-hours}") int rotationIntervalInHours,
+            @Value("${jwt.keys.retention-in-hours}") int retentionInHours,
+            @Value("${jwt.keys.refresh-interval-in-seconds}") int refreshIntervalInSeconds
+    ) {
+        // A token signed just before a rotation lives on for its whole lifetime, and instances that have not refreshed
+        // yet may still sign with the previous key for one more refresh interval
+        var minimumRetention = Duration
+                .ofHours(rotationIntervalInHours)
+                .plus(SecurityService.TOKEN_LIFETIME)
+                .plusSeconds(refreshIntervalInSeconds);
+
+        if (Duration.ofHours(retentionInHours).compareTo(minimumRetention) < 0) {
+            throw new IllegalStateException(
+                    "jwt.keys.retention-in-hours must cover the rotation interval, the token lifetime and the refresh interval: " + minimumRetention
+            );
+        }
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jwkCipher = jwkCipher;
+        this.algorithm = algorithm;
+        this.rotationIntervalInHours = rotationIntervalInHours;
+        this.retentionInHours = retentionInHours;
+    }
+
+    public SigningKey getSigningKey() {
+        var current = keys;
+
+        if (current == null || current.signingKey() == null) {
+            synchronized (this) {
+                current = keys;
+
+                if (current == null || current.signingKey() == null) {
+                    refresh();
+                    current = keys;
+                }
+            }
+        }
+
+        return current.signingKey();
+    }
+
+    public Map<String, Object> getPublicJwkSet() {
+        var current = keys != null ? keys : load();
+        return current.publicJwkSet().toJSONObject();
+    }
+
+    Optional<JWSVerifier> getVerifier(String kid, JWSAlgorithm jwsAlgorithm) {
+        var current = keys != null ? keys : load();
+        var verificationKey = current.verificationKeys().get(kid);
+
+        if (verificationKey == null && kid != null && loadedAt.plus(UNKNOWN_KID_RELOAD_INTERVAL).isBefore(Instant.now())) {
+            verificationKey = load().verificationKeys().get(kid);
+        }
+
+        return Optional
+                .ofNullable(verificationKey)
+                .filter(key -> key.algorithm().jwsAlgorithm().equals(jwsAlgorithm))
+                .map(VerificationKey::verifier);
+    }
+
+    @Scheduled(fixedRateString = "${jwt.keys.refresh-interval-in-seconds}", timeUnit = TimeUnit.SECONDS)
+    public void refresh() {
+        var current = load();
+        var signingKey = current.signingKey();
+
+        if (signingKey == null || signingKey.createdAt().plus(Duration.ofHours(rotationIntervalInHours)).isBefore(Instant.now())) {
+            rotate(false);
+        }
+    }
+
+    public void rotate() {
+        rotate(true);
+    }
+
+    private void rotate(boolean force) {
+        // Every instance runs the refresh, the lock and the count make sure only one of them creates the next key
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute(ROTATION_LOCK_SQL);
+
+            var activeKeys = jdbcTemplate.queryForObject(COUNT_ACTIVE_KEYS_SQL, Long.class, algorithm.name(), rotationIntervalInHours);
+
+            if (force || activeKeys == null || activeKeys == 0) {
+                var kid = UuidV7Generator.next().toString();
+                var jwk = generate(kid);
+                jdbcTemplate.update(INSERT_KEY_SQL, kid, algorithm.name(), jwk.toPublicJWK().toJSONString(), jwkCipher.encrypt(jwk));
+                log.info("Created {} signing key {}", algorithm, kid);
+            }
+
+            var retiredKeys = jdbcTemplate.update(DELETE_RETIRED_KEYS_SQL, retentionInHours);
+
+            if (retiredKeys > 0) {
+                log.info("Deleted {} retired signing keys", retiredKeys);
+            }
+        });
+
+        load();
+    }
+
+    private Keys load() {
+        var storedKeys = jdbcTemplate.query(SELECT_KEYS_SQL, JwtKeyRing::mapStoredKey);
+
+        var publicJwks = new ArrayList<JWK>();
+        var verificationKeys = new HashMap<String, VerificationKey>();
+        StoredKey newestSigningKey = null;
+
+        try {
+            for (var storedKey : storedKeys) {
+                publicJwks.add(storedKey.publicJwk());
+                verificationKeys.put(storedKey.kid(), new VerificationKey(storedKey.algorithm(), storedKey.algorithm().verifier(storedKey.publicJwk())));
+
+                // Keys are ordered by creation, the last one of the configured algorithm signs new tokens
+                if (storedKey.algorithm() == algorithm && storedKey.encryptedJwk() != null) {
+                    newestSigningKey = storedKey;
+                }
+            }
+        } catch (JOSEException ex) {
+            throw new IllegalStateException("Could not load the JWT signing keys", ex);
+        }
+
+        var signingKey = newestSigningKey != null ? toSigningKey(newestSigningKey) : null;
+        var loaded = new Keys(new JWKSet(publicJwks), Map.copyOf(verificationKeys), signingKey);
+        keys = loaded;
+        loadedAt = Instant.now();
+        return loaded;
+    }
+
+    private SigningKey toSigningKey(StoredKey storedKey) {
+        var current = keys;
+
+        // Only the private key of a new signing key is decrypted, every other refresh keeps the signer it already has
+        if (current != null && current.signingKey() != null && current.signingKey().kid().equals(storedKey.kid())) {
+            return current.signingKey();
+        }
+
+        try {
+            var signer = storedKey.algorithm().signer(jwkCipher.decrypt(storedKey.kid(), storedKey.encryptedJwk()));
+            return new SigningKey(storedKey.kid(), storedKey.algorithm(), signer, storedKey.createdAt());
+        } catch (JOSEException ex) {
+            throw new IllegalStateException("Could not load the JWT signing keys", ex);
+        }
+    }
+
+    private JWK generate(String kid) {
+        try {
+            return algorithm.generate(kid);
+        } catch (JOSEException ex) {
+            throw new IllegalStateException("Could not generate a %s signing key".formatted(algorithm), ex);
+        }
+    }
+
+    private static StoredKey mapStoredKey(ResultSet rs, int rowNum) throws SQLException {
+        try {
+            return new StoredKey(
+                    rs.getString("kid"),
+                    JwtAlgorithm.valueOf(rs.getString("algorithm")),
+                    JWK.parse(rs.getString("public_jwk")),
+                    rs.getBytes("encrypted_jwk"),
+                    rs.getTimestamp("created_at").toInstant()
+            );
+        } catch (ParseException ex) {
+            throw new SQLException("Invalid JWK for key " + rs.getString("kid"), ex);
+        }
+    }
+
+    public record SigningKey(String kid, JwtAlgorithm algorithm, JWSSigner signer, Instant createdAt) {
+    }
+
+    private record StoredKey(String kid, JwtAlgorithm algorithm, JWK publicJwk, byte[] encryptedJwk, Instant createdAt) {
+    }
+
+    private record VerificationKey(JwtAlgorithm algorithm, JWSVerifier verifier) {
+    }
+
+    private record Keys(JWKSet publicJwkSet, Map<String, VerificationKey> verificationKeys, SigningKey signingKey) {
+    }
+
+}
@@ -0,0 +1,64 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+import java.net.URL;
+import java.time.Instant;
+import java.util.Date;
+
+// NimbusJwtEncoder can not select Ed25519 keys, tokens are signed with Nimbus directly using the current key of the ring
+public class KeyRingJwtEncoder implements JwtEncoder {
+
+    private final JwtKeyRing jwtKeyRing;
+
+    public KeyRingJwtEncoder(JwtKeyRing jwtKeyRing) {
+        this.jwtKeyRing = jwtKeyRing;
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) {
+        var signingKey = jwtKeyRing.getSigningKey();
+        var claims = parameters.getClaims();
+
+        var header = new JWSHeader
+                .Builder(signingKey.algorithm().jwsAlgorithm())
+                .keyID(signingKey.kid())
+                .type(JOSEObjectType.JWT)
+                .build();
+        var signedJwt = new SignedJWT(header, convert(claims));
+
+        try {
+            signedJwt.sign(signingKey.signer());
+        } catch (JOSEException ex) {
+            throw new JwtEncodingException("Failed to sign the JWT with key " + signingKey.kid(), ex);
+        }
+
+        return new Jwt(signedJwt.serialize(), claims.getIssuedAt(), claims.getExpiresAt(), header.toJSONObject(), claims.getClaims());
+    }
+
+    private static JWTClaimsSet convert(JwtClaimsSet claims) {
+        var builder = new JWTClaimsSet.Builder();
+
+        claims.getClaims().forEach((name, value) -> {
+            if (value instanceof Instant instant) {
+                builder.claim(name, Date.from(instant));
+            } else if (value instanceof URL url) {
+                builder.claim(name, url.toExternalForm());
+            } else {
+                builder.claim(name, value);
+            }
+        });
+
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,69 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.PlainJWT;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.BadJWTException;
+import com.nimbusds.jwt.proc.JWTProcessor;
+
+import java.text.ParseException;
+
+// DefaultJWTProcessor selects keys as java.security.Key which Ed25519 JWKs can not be converted to
+public class KeyRingJwtProcessor implements JWTProcessor<SecurityContext> {
+
+    private final JwtKeyRing jwtKeyRing;
+
+    public KeyRingJwtProcessor(JwtKeyRing jwtKeyRing) {
+        this.jwtKeyRing = jwtKeyRing;
+    }
+
+    @Override
+    public JWTClaimsSet process(String jwtString, SecurityContext context) throws ParseException, BadJOSEException, JOSEException {
+        return process(JWTParser.parse(jwtString), context);
+    }
+
+    @Override
+    public JWTClaimsSet process(JWT jwt, SecurityContext context) throws BadJOSEException, JOSEException {
+        if (jwt instanceof SignedJWT signedJwt) {
+            return process(signedJwt, context);
+        }
+
+        throw new BadJOSEException("Only signed JWTs are accepted");
+    }
+
+    @Override
+    public JWTClaimsSet process(PlainJWT plainJwt, SecurityContext context) throws BadJOSEException {
+        throw new BadJOSEException("Unsecured (plain) JWTs are rejected");
+    }
+
+    @Override
+    public JWTClaimsSet process(SignedJWT signedJwt, SecurityContext context) throws BadJOSEException, JOSEException {
+        var header = signedJwt.getHeader();
+        var verifier = jwtKeyRing
+                .getVerifier(header.getKeyID(), header.getAlgorithm())
+                .orElseThrow(() -> new BadJOSEException("Signed JWT rejected: No key found for kid " + header.getKeyID()));
+
+        if (!signedJwt.verify(verifier)) {
+            throw new BadJWSException("Signed JWT rejected: Invalid signature");
+        }
+
+        try {
+            return signedJwt.getJWTClaimsSet();
+        } catch (ParseException ex) {
+            throw new BadJWTException(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public JWTClaimsSet process(EncryptedJWT encryptedJwt, SecurityContext context) throws BadJOSEException {
+        throw new BadJOSEException("Encrypted JWTs are rejected");
+    }
+
+}
@@ -0,0 +1,37 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.PasswordHashingRejectedException;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+
+import java.io.IOException;
+
+public class PasswordHashingRejectedEntryPoint implements AuthenticationEntryPoint {
+
+    private final AuthenticationEntryPoint delegate;
+
+    public PasswordHashingRejectedEntryPoint(AuthenticationEntryPoint delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void commence(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            AuthenticationException authException
+    ) throws IOException, ServletException {
+        if (authException instanceof PasswordHashingRejectedException) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), authException.getMessage());
+            return;
+        }
+
+        delegate.commence(request, response, authException);
+    }
+
+}
@@ -0,0 +1,23 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityUser;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
+
+import java.util.Collection;
+import java.util.Map;
+
+public class SecurityUserAuthenticationToken extends AbstractOAuth2TokenAuthenticationToken<Jwt> {
+
+    public SecurityUserAuthenticationToken(Jwt jwt, SecurityUser securityUser, Collection<? extends GrantedAuthority> authorities) {
+        super(jwt, securityUser, jwt, authorities);
+        setAuthenticated(true);
+    }
+
+    @Override
+    public Map<String, Object> getTokenAttributes() {
+        return getToken().getClaims();
+    }
+
+}
@@ -0,0 +1,41 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import dev.felix2000jp.springapplicationtemplate.auth.application.SecurityService;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityScope;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityUser;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+public class SecurityUserJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        var id = jwt.getClaimAsString(SecurityService.ID_CLAIM_NAME);
+        var scope = jwt.getClaimAsString(SecurityService.SCOPE_CLAIM_NAME);
+
+        if (id == null || scope == null) {
+            throw new InvalidBearerTokenException("The token is missing the id or scope claim");
+        }
+
+        try {
+            var scopes = EnumSet.noneOf(SecurityScope.class);
+            Arrays.stream(scope.split(" ")).map(SecurityScope::valueOf).forEach(scopes::add);
+
+            var securityUser = new SecurityUser(UUID.fromString(id), jwt.getSubject(), Set.copyOf(scopes));
+            var authorities = scopes.stream().map(s -> new SimpleGrantedAuthority(s.toAuthority())).toList();
+
+            return new SecurityUserAuthenticationToken(jwt, securityUser, authorities);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidBearerTokenException("The token has an invalid id or scope claim", ex);
+        }
+    }
+
+}
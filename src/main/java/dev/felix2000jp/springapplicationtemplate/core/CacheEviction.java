@@ -0,0 +1,30 @@
+package dev.felix2000jp.springapplicationtemplate.core;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts cache entries that a writing transaction makes stale.
+ * <p>
+ * A reader may load the old value again before the writing transaction commits, so the eviction runs once right away
+ * and once more after the transaction completes.
+ */
+public final class CacheEviction {
+
+    private CacheEviction() {
+    }
+
+    public static void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package dev.felix2000jp.springapplicationtemplate.core;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered UUIDs as defined by RFC 9562 version 7: 48 bits of unix epoch milliseconds, a 12-bit counter
+ * that keeps ids generated within the same millisecond increasing and 62 random bits.
+ * <p>
+ * Use it as the algorithm of {@link org.hibernate.annotations.UuidGenerator} so new rows are appended to the right
+ * edge of the primary key index instead of landing on random leaf pages.
+ */
+public class UuidV7Generator implements UuidValueGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final AtomicLong LAST_TIMESTAMP_AND_COUNTER = new AtomicLong();
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return next();
+    }
+
+    public static UUID next() {
+        var timestampAndCounter = nextTimestampAndCounter();
+
+        // Version 7 in the 4 bits after the timestamp, variant 0b10 in the top bits of the least significant half
+        var mostSignificantBits = (timestampAndCounter >>> COUNTER_BITS) << 16
+                | 0x7000L
+                | timestampAndCounter & 0x0FFFL;
+        var leastSignificantBits = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    // When the counter overflows within a millisecond the timestamp is borrowed from the next one, ids stay monotonic
+    // and the clock catches up as soon as the burst is over
+    private static long nextTimestampAndCounter() {
+        var now = System.currentTimeMillis() << COUNTER_BITS;
+
+        while (true) {
+            var last = LAST_TIMESTAMP_AND_COUNTER.get();
+            var next = Math.max(now, last + 1);
+
+            if (LAST_TIMESTAMP_AND_COUNTER.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+}
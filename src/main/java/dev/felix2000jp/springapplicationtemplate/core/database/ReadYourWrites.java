@@ -0,0 +1,87 @@
+package dev.felix2000jp.springapplicationtemplate.core.database;
+
+import org.springframework.modulith.NamedInterface;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Sends reads to the primary when a replica could return stale data.
+ * <p>
+ * A value that is kept around after the read, for example in a cache, should not come from a replica that may still be
+ * behind the last commit. The routing data source hands out a primary connection for every read that runs inside
+ * {@link #readFromPrimary(Supplier)}, without the transaction having to be read write.
+ * <p>
+ * After a commit the reads of the user who wrote stay on the primary for a while. The routing data source knows the
+ * authenticated user, a write made for someone else (for example a registration, nobody is logged in yet) records that
+ * user with {@link #recordWriteBy(String)}.
+ */
+@NamedInterface
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> READING_FROM_PRIMARY = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        if (isReadingFromPrimary()) {
+            return read.get();
+        }
+
+        READING_FROM_PRIMARY.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            READING_FROM_PRIMARY.remove();
+        }
+    }
+
+    public static void recordWriteBy(String username) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        var recordedWriters = findRecordedWriters();
+
+        if (recordedWriters == null) {
+            recordedWriters = new RecordedWriters();
+            TransactionSynchronizationManager.registerSynchronization(recordedWriters);
+        }
+
+        recordedWriters.usernames.add(username);
+    }
+
+    static boolean isReadingFromPrimary() {
+        return READING_FROM_PRIMARY.get() != null;
+    }
+
+    // Kept as a synchronization instead of a bound resource, so a suspended outer transaction keeps its own writers
+    static Set<String> getWritersOfCurrentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Set.of();
+        }
+
+        var recordedWriters = findRecordedWriters();
+        return recordedWriters == null ? Set.of() : Set.copyOf(recordedWriters.usernames);
+    }
+
+    private static RecordedWriters findRecordedWriters() {
+        for (var synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof RecordedWriters recordedWriters) {
+                return recordedWriters;
+            }
+        }
+        return null;
+    }
+
+    private static final class RecordedWriters implements TransactionSynchronization {
+
+        private final Set<String> usernames = new HashSet<>();
+
+    }
+
+}
@@ -0,0 +1,85 @@
+package dev.felix2000jp.springapplicationtemplate.core.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty("datasource.replicas.urls")
+class ReplicaRoutingConfiguration {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Bean
+    @ConfigurationProperties(HIKARI_PREFIX)
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Value("${datasource.replicas.urls}") List<String> replicaUrls,
+            @Value("${datasource.replicas.read-your-writes-window-in-seconds}") long readYourWritesWindowInSeconds,
+            DataSourceProperties properties,
+            Environment environment,
+            AutowireCapableBeanFactory beanFactory,
+            MeterRegistry meterRegistry
+    ) {
+        var replicas = new LinkedHashMap<String, DataSource>();
+
+        for (var i = 0; i < replicaUrls.size(); i++) {
+            var poolName = "replica-" + i;
+
+            var replica = properties
+                    .initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(replicaUrls.get(i))
+                    .build();
+            Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(replica));
+            replica.setPoolName(poolName);
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+            // Replicas are not beans of their own, initializing them still applies the same post processing the
+            // primary pool gets (for example the connection bound in the virtual-threads profile)
+            replicas.put(poolName, (DataSource) beanFactory.initializeBean(replica, poolName + "DataSource"));
+        }
+
+        return new ReplicaRoutingDataSource(
+                primaryDataSource,
+                replicas,
+                Duration.ofSeconds(readYourWritesWindowInSeconds),
+                meterRegistry
+        );
+    }
+
+    // The routing key depends on the transaction being read only, which is only known after the transaction manager
+    // asked for a connection, so the physical connection has to be fetched lazily on the first statement
+    @Bean
+    @Primary
+    DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+}
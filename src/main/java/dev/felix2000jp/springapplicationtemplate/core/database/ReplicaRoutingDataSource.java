@@ -0,0 +1,118 @@
+package dev.felix2000jp.springapplicationtemplate.core.database;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private static final int MAXIMUM_RECENT_WRITERS = 100_000;
+
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaNames;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Cache<String, Boolean> recentWriters;
+    private final MeterRegistry meterRegistry;
+
+    ReplicaRoutingDataSource(
+            DataSource primary,
+            Map<String, DataSource> replicas,
+            Duration readYourWritesWindow,
+            MeterRegistry meterRegistry
+    ) {
+        this.replicas = replicas;
+        this.replicaNames = List.copyOf(replicas.keySet());
+        this.recentWriters = Caffeine
+                .newBuilder()
+                .maximumSize(MAXIMUM_RECENT_WRITERS)
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        this.meterRegistry = meterRegistry;
+
+        var targetDataSources = new HashMap<Object, Object>(replicas);
+        targetDataSources.put(PRIMARY, primary);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        var username = getCurrentUsername();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWrite(username);
+            return route(PRIMARY, "write");
+        }
+
+        if (ReadYourWrites.isReadingFromPrimary()) {
+            return route(PRIMARY, "primary-read");
+        }
+
+        if (username != null && recentWriters.getIfPresent(username) != null) {
+            return route(PRIMARY, "read-your-writes");
+        }
+
+        var replica = replicaNames.get(Math.floorMod(nextReplica.getAndIncrement(), replicaNames.size()));
+        return route(replica, "read");
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (var replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void recordWrite(String username) {
+        // Replication only starts once the transaction commits, so the window is measured from the commit. The writers
+        // are read at the commit, a write may record them after the connection was handed out
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    if (username != null) {
+                        recentWriters.put(username, Boolean.TRUE);
+                    }
+                    ReadYourWrites.getWritersOfCurrentTransaction().forEach(writer -> recentWriters.put(writer, Boolean.TRUE));
+                }
+            });
+        } else if (username != null) {
+            recentWriters.put(username, Boolean.TRUE);
+        }
+    }
+
+    private String route(String target, String reason) {
+        Counter
+                .builder("datasource.routing")
+                .description("Connections handed out by the routing data source")
+                .tag("pool", target)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return target;
+    }
+
+    private String getCurrentUsername() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+}
@@ -0,0 +1,123 @@
+package dev.felix2000jp.springapplicationtemplate.core.threads;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class BoundedDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final TimedConnectionSupplier targetConnectionSupplier;
+
+    // The target only gets what is left of the acquire timeout after the permit, so the whole wait stays within it
+    BoundedDataSource(
+            DataSource targetDataSource,
+            int maxConnections,
+            Duration acquireTimeout,
+            TimedConnectionSupplier targetConnectionSupplier
+    ) {
+        super(targetDataSource);
+        this.permits = new Semaphore(maxConnections, true);
+        this.acquireTimeout = acquireTimeout;
+        this.targetConnectionSupplier = targetConnectionSupplier;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        var remainingTimeout = acquirePermit();
+        return openConnection(() -> targetConnectionSupplier.get(remainingTimeout));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquirePermit();
+        return openConnection(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    private Duration acquirePermit() throws SQLException {
+        var startedAt = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Connection is not available, request timed out after " + acquireTimeout.toMillis() + "ms"
+                );
+            }
+            var remainingTimeout = acquireTimeout.minusNanos(System.nanoTime() - startedAt);
+            return remainingTimeout.isNegative() ? Duration.ZERO : remainingTimeout;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", ex);
+        }
+    }
+
+    private Connection openConnection(ConnectionSupplier supplier) throws SQLException {
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+
+        var closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            // Only the first close gives the permit back, closing twice is allowed by the JDBC contract
+                            if (closed.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+                }
+        );
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface TimedConnectionSupplier {
+        Connection get(Duration timeout) throws SQLException;
+    }
+
+}
@@ -0,0 +1,72 @@
+package dev.felix2000jp.springapplicationtemplate.core.threads;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+class PinnedThreadMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+    private final Timer pinnedTimer;
+
+    private RecordingStream recordingStream;
+
+    PinnedThreadMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.pinnedTimer = Timer
+                .builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent pinned to their carrier thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+    }
+
+    @Override
+    public void stop() {
+        recordingStream.close();
+        recordingStream = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+
+        var stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            log.warn("Virtual thread was pinned for {}ms", event.getDuration().toMillis());
+            return;
+        }
+
+        var frames = stackTrace
+                .getFrames()
+                .stream()
+                .limit(LOGGED_FRAMES)
+                .map(RecordedFrame::getMethod)
+                .map(method -> method.getType().getName() + "." + method.getName())
+                .collect(Collectors.joining("\n\tat "));
+        log.warn("Virtual thread was pinned for {}ms\n\tat {}", event.getDuration().toMillis(), frames);
+    }
+
+}
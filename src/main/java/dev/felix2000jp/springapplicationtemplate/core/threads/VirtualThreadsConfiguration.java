@@ -0,0 +1,73 @@
+package dev.felix2000jp.springapplicationtemplate.core.threads;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+class VirtualThreadsConfiguration {
+
+    // Virtual threads are cheap enough that thousands of requests can reach the pool at once, queueing them on a fair
+    // semaphore sized to the pool keeps them parked in arrival order instead of all of them contending inside Hikari
+    @Bean
+    static BeanPostProcessor boundedDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikariDataSource)) {
+                    return bean;
+                }
+
+                var dataSource = new BoundedDataSource(
+                        hikariDataSource,
+                        hikariDataSource.getMaximumPoolSize(),
+                        Duration.ofMillis(hikariDataSource.getConnectionTimeout()),
+                        timeout -> getConnection(hikariDataSource, timeout)
+                );
+
+                var registry = meterRegistry.getObject();
+                Gauge.builder("datasource.permits.waiting", dataSource, BoundedDataSource::getWaitingThreads)
+                        .description("Threads waiting for a database connection permit")
+                        .tag("name", beanName)
+                        .register(registry);
+                Gauge.builder("datasource.permits.available", dataSource, BoundedDataSource::getAvailablePermits)
+                        .description("Database connection permits that are not in use")
+                        .tag("name", beanName)
+                        .register(registry);
+
+                return dataSource;
+            }
+        };
+    }
+
+    // Hikari only takes a timeout per call on its pool, which is created by the first connection. That first call waits
+    // the configured connectionTimeout, after the permit it can only be slow when the pool has no connection yet.
+    private static Connection getConnection(HikariDataSource hikariDataSource, Duration timeout) throws SQLException {
+        if (hikariDataSource.getHikariPoolMXBean() instanceof HikariPool hikariPool) {
+            return hikariPool.getConnection(timeout.toMillis());
+        }
+        return hikariDataSource.getConnection();
+    }
+
+    @Bean
+    PinnedThreadMonitor pinnedThreadMonitor(
+            @Value("${threads.virtual.pinned-threshold-in-milliseconds}") long pinnedThresholdInMilliseconds,
+            MeterRegistry meterRegistry
+    ) {
+        return new PinnedThreadMonitor(Duration.ofMillis(pinnedThresholdInMilliseconds), meterRegistry);
+    }
+
+}
@@ -1,21 +1,121 @@
 package dev.felix2000jp.springapplicationtemplate.notes.application;
 
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteChangesDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteCursorListDto;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteListDto;
 import dev.felix2000jp.springapplicationtemplate.notes.domain.Note;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteChange;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteRepository;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteSearchHit;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteSearchPosition;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.InvalidNoteCursorException;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.util.Base64;
 import java.util.List;
+import java.util.UUID;
 
 @Component
 class NoteMapper {
 
     NoteDto toDto(Note note) {
-        return new NoteDto(note.getId(), note.getTitle(), note.getContent());
+        return new NoteDto(note.getId(), note.getTitle(), note.getContent(), note.getVersion());
+    }
+
+    NoteDto toDto(NoteSearchHit noteSearchHit) {
+        return new NoteDto(noteSearchHit.id(), noteSearchHit.title(), noteSearchHit.content(), noteSearchHit.version());
+    }
+
+    NoteDto toDto(NoteChange noteChange) {
+        return new NoteDto(noteChange.id(), noteChange.title(), noteChange.content(), noteChange.version());
     }
 
     NoteListDto toDto(List<Note> notes) {
         return new NoteListDto(notes.stream().map(this::toDto).toList());
     }
 
+    NoteCursorListDto toCursorDto(List<Note> notes) {
+        var nextCursor = notes.size() < NoteRepository.PAGE_SIZE ? null : toCursor(notes.getLast().getId());
+        return new NoteCursorListDto(notes.stream().map(this::toDto).toList(), nextCursor);
+    }
+
+    NoteCursorListDto toSearchCursorDto(List<NoteSearchHit> noteSearchHits) {
+        var nextCursor = noteSearchHits.size() < NoteRepository.PAGE_SIZE
+                ? null
+                : toSearchCursor(noteSearchHits.getLast().toPosition());
+        return new NoteCursorListDto(noteSearchHits.stream().map(this::toDto).toList(), nextCursor);
+    }
+
+    NoteChangesDto toChangesDto(List<NoteChange> noteChanges, long afterSequence) {
+        var notes = noteChanges.stream().filter(change -> !change.deleted()).map(this::toDto).toList();
+        var deletedIds = noteChanges.stream().filter(NoteChange::deleted).map(NoteChange::id).toList();
+        var lastSequence = noteChanges.isEmpty() ? afterSequence : noteChanges.getLast().sequence();
+        var hasMore = noteChanges.size() >= NoteRepository.CHANGES_PAGE_SIZE;
+        return new NoteChangesDto(notes, deletedIds, toChangeToken(lastSequence), hasMore);
+    }
+
+    String toCursor(UUID id) {
+        var buffer = ByteBuffer.allocate(16);
+        putUuid(buffer, id);
+        return encodeCursor(buffer);
+    }
+
+    UUID fromCursor(String cursor) {
+        var buffer = decodeCursor(cursor, 16);
+        return buffer == null ? null : getUuid(buffer);
+    }
+
+    String toSearchCursor(NoteSearchPosition position) {
+        var buffer = ByteBuffer.allocate(20).putFloat(position.rank());
+        putUuid(buffer, position.id());
+        return encodeCursor(buffer);
+    }
+
+    NoteSearchPosition fromSearchCursor(String cursor) {
+        var buffer = decodeCursor(cursor, 20);
+        return buffer == null ? null : new NoteSearchPosition(buffer.getFloat(), getUuid(buffer));
+    }
+
+    String toChangeToken(long sequence) {
+        var buffer = ByteBuffer.allocate(8).putLong(sequence);
+        return encodeCursor(buffer);
+    }
+
+    long fromChangeToken(String token) {
+        var buffer = decodeCursor(token, 8);
+        return buffer == null ? 0 : buffer.getLong();
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static String encodeCursor(ByteBuffer buffer) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    private static ByteBuffer decodeCursor(String cursor, int length) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            var buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor));
+
+            if (buffer.remaining() != length) {
+                throw new InvalidNoteCursorException();
+            }
+
+            return buffer;
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidNoteCursorException();
+        }
+    }
+
 }
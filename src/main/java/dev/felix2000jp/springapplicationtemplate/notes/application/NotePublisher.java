@@ -0,0 +1,9 @@
+package dev.felix2000jp.springapplicationtemplate.notes.application;
+
+import dev.felix2000jp.springapplicationtemplate.notes.application.events.NoteChangedEvent;
+
+public interface NotePublisher {
+
+    void publish(NoteChangedEvent event);
+
+}
@@ -0,0 +1,21 @@
+package dev.felix2000jp.springapplicationtemplate.notes.application;
+
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteSummaryDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteVersionDto;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface NoteQueries {
+
+    List<NoteDto> findAllByAppuserId(UUID appuserId, int pageNumber);
+
+    List<NoteVersionDto> findAllVersionsByAppuserId(UUID appuserId, int pageNumber);
+
+    List<NoteSummaryDto> findAllSummariesByAppuserId(UUID appuserId, int pageNumber);
+
+    Optional<NoteDto> findByIdAndAppuserId(UUID id, UUID appuserId);
+
+}
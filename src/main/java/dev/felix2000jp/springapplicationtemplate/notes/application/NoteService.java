@@ -1,48 +1,153 @@
 package dev.felix2000jp.springapplicationtemplate.notes.application;
 
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.CreateNoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.CreateNoteListDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteChangesDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteCursorListDto;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteImportDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteImportRejectionDto;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteListDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteSummaryListDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteVersionDto;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.UpdateNoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.events.NoteChangeType;
+import dev.felix2000jp.springapplicationtemplate.notes.application.events.NoteChangedEvent;
 import dev.felix2000jp.springapplicationtemplate.notes.domain.Note;
 import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteRepository;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.NoteChangeTokenExpiredException;
 import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.NoteNotFoundException;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.NoteVersionMismatchException;
 import dev.felix2000jp.springapplicationtemplate.auth.application.SecurityService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class NoteService {
 
     private static final Logger log = LoggerFactory.getLogger(NoteService.class);
 
+    private static final int MAX_REPORTED_IMPORT_REJECTIONS = 100;
+    private static final int PURGE_CHUNK_SIZE = 1000;
+
     private final NoteRepository noteRepository;
+    private final NoteQueries noteQueries;
     private final NoteMapper noteMapper;
+    private final NotePublisher notePublisher;
     private final SecurityService securityService;
+    private final Validator validator;
+    private final Counter purgedNotesCounter;
+    private final Timer purgeChunkTimer;
 
-    NoteService(NoteRepository noteRepository, NoteMapper noteMapper, SecurityService securityService) {
+    NoteService(
+            NoteRepository noteRepository,
+            NoteQueries noteQueries,
+            NoteMapper noteMapper,
+            NotePublisher notePublisher,
+            SecurityService securityService,
+            Validator validator,
+            MeterRegistry meterRegistry
+    ) {
         this.noteRepository = noteRepository;
+        this.noteQueries = noteQueries;
         this.noteMapper = noteMapper;
+        this.notePublisher = notePublisher;
         this.securityService = securityService;
+        this.validator = validator;
+        this.purgedNotesCounter = Counter
+                .builder("notes.purge.deleted")
+                .description("Notes deleted by the purge of deleted appusers")
+                .register(meterRegistry);
+        this.purgeChunkTimer = Timer
+                .builder("notes.purge.chunk")
+                .description("Time taken to delete and commit one chunk of a deleted appuser's notes")
+                .register(meterRegistry);
+    }
+
+    public UUID getCurrentAppuserId() {
+        return securityService.getUser().id();
     }
 
     public NoteListDto getNotesForCurrentUser(int pageNumber) {
         var appuserId = securityService.getUser().id();
-        var notes = noteRepository.findAllByAppuserId(appuserId, pageNumber);
-        return noteMapper.toDto(notes);
+        var notes = noteQueries.findAllByAppuserId(appuserId, pageNumber);
+        return new NoteListDto(notes);
+    }
+
+    public List<NoteVersionDto> getNoteVersionsForCurrentUser(int pageNumber) {
+        var appuserId = securityService.getUser().id();
+        return noteQueries.findAllVersionsByAppuserId(appuserId, pageNumber);
+    }
+
+    public NoteSummaryListDto getNoteSummariesForCurrentUser(int pageNumber) {
+        var appuserId = securityService.getUser().id();
+        var notes = noteQueries.findAllSummariesByAppuserId(appuserId, pageNumber);
+        return new NoteSummaryListDto(notes);
+    }
+
+    public NoteCursorListDto getNotesForCurrentUserAfter(String cursor) {
+        var appuserId = securityService.getUser().id();
+        var afterId = noteMapper.fromCursor(cursor);
+        var notes = noteRepository.findAllByAppuserIdAfterId(appuserId, afterId);
+        return noteMapper.toCursorDto(notes);
+    }
+
+    public void exportNotesForCurrentUser(Consumer<NoteDto> consumer) {
+        var appuserId = securityService.getUser().id();
+        noteRepository.forEachByAppuserId(appuserId, note -> consumer.accept(noteMapper.toDto(note)));
+    }
+
+    public NoteCursorListDto searchNotesForCurrentUser(String query, String cursor) {
+        var appuserId = securityService.getUser().id();
+        var after = noteMapper.fromSearchCursor(cursor);
+        var noteSearchHits = noteRepository.searchByAppuserId(appuserId, query, after);
+        return noteMapper.toSearchCursorDto(noteSearchHits);
+    }
+
+    public NoteChangesDto getNoteChangesForCurrentUser(String since) {
+        var appuserId = securityService.getUser().id();
+        var afterSequence = noteMapper.fromChangeToken(since);
+        var noteChanges = noteRepository.findChangesByAppuserIdAfter(appuserId, afterSequence);
+
+        // Checked after reading the changes, tombstones purged in between move the horizon past the token
+        if (afterSequence > 0 && afterSequence < noteRepository.findTombstoneHorizonByAppuserId(appuserId)) {
+            throw new NoteChangeTokenExpiredException();
+        }
+
+        return noteMapper.toChangesDto(noteChanges, afterSequence);
     }
 
     public NoteDto getNoteByIdForCurrentUser(UUID id) {
         var appuserId = securityService.getUser().id();
 
-        var note = noteRepository
+        return noteQueries
                 .findByIdAndAppuserId(id, appuserId)
                 .orElseThrow(NoteNotFoundException::new);
+    }
+
+    public long getNoteVersionByIdForCurrentUser(UUID id) {
+        var appuserId = securityService.getUser().id();
 
-        return noteMapper.toDto(note);
+        return noteRepository
+                .findVersionByIdAndAppuserId(id, appuserId)
+                .orElseThrow(NoteNotFoundException::new);
     }
 
     public NoteDto createNoteForCurrentUser(CreateNoteDto createNoteDto) {
@@ -52,40 +157,147 @@ public class NoteService {
         noteRepository.save(noteToCreate);
         log.info("Note with id {} created", noteToCreate.getId());
 
-        return noteMapper.toDto(noteToCreate);
+        var createdNoteDto = noteMapper.toDto(noteToCreate);
+        notePublisher.publish(new NoteChangedEvent(appuserId, NoteChangeType.CREATED, createdNoteDto));
+
+        return createdNoteDto;
     }
 
-    public NoteDto updateNoteByIdForCurrentUser(UUID noteId, UpdateNoteDto updateNoteDto) {
+    public NoteListDto createNotesForCurrentUser(CreateNoteListDto createNoteListDto) {
         var appuserId = securityService.getUser().id();
 
-        var noteToUpdate = noteRepository
-                .findByIdAndAppuserId(noteId, appuserId)
-                .orElseThrow(NoteNotFoundException::new);
+        var notesToCreate = createNoteListDto
+                .notes()
+                .stream()
+                .map(createNoteDto -> new Note(appuserId, createNoteDto.title(), createNoteDto.content()))
+                .toList();
+        noteRepository.saveAll(notesToCreate);
+        log.info("{} notes created for appuserId {}", notesToCreate.size(), appuserId);
 
-        noteToUpdate.setTitle(updateNoteDto.title());
-        noteToUpdate.setContent(updateNoteDto.content());
-        noteRepository.save(noteToUpdate);
-        log.info("Note with id {} updated", noteToUpdate.getId());
+        return noteMapper.toDto(notesToCreate);
+    }
+
+    public NoteImportDto importNotesForCurrentUser(Stream<CreateNoteDto> createNoteDtos) {
+        var appuserId = securityService.getUser().id();
+        var startedAt = System.nanoTime();
+
+        var line = new AtomicLong();
+        var rejected = new AtomicLong();
+        var rejections = new ArrayList<NoteImportRejectionDto>();
+
+        var notesToImport = createNoteDtos
+                .map(createNoteDto -> {
+                    var reason = validateNoteToImport(appuserId, createNoteDto);
+                    var currentLine = line.incrementAndGet();
+
+                    if (reason == null) {
+                        return new Note(appuserId, createNoteDto.title(), createNoteDto.content());
+                    }
+
+                    if (rejected.incrementAndGet() <= MAX_REPORTED_IMPORT_REJECTIONS) {
+                        rejections.add(new NoteImportRejectionDto(currentLine, reason));
+                    }
+                    return null;
+                })
+                .filter(Objects::nonNull);
+
+        var imported = noteRepository.copyAll(notesToImport);
 
-        return noteMapper.toDto(noteToUpdate);
+        var elapsedNanos = Math.max(System.nanoTime() - startedAt, 1);
+        var rowsPerSecond = line.get() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        log.info(
+                "{} notes imported and {} rejected for appuserId {} at {} rows per second",
+                imported, rejected.get(), appuserId, rowsPerSecond
+        );
+
+        return new NoteImportDto(imported, rejected.get(), rowsPerSecond, rejections);
+    }
+
+    public NoteDto updateNoteByIdForCurrentUser(UUID noteId, UpdateNoteDto updateNoteDto, Long expectedVersion) {
+        var appuserId = securityService.getUser().id();
+
+        var updatedNote = expectedVersion == null
+                ? noteRepository.updateByIdAndAppuserId(noteId, appuserId, updateNoteDto.title(), updateNoteDto.content())
+                : noteRepository.updateByIdAndAppuserIdAndVersion(noteId, appuserId, expectedVersion, updateNoteDto.title(), updateNoteDto.content());
+
+        if (updatedNote.isEmpty()) {
+            var noteExists = expectedVersion != null && noteRepository.findVersionByIdAndAppuserId(noteId, appuserId).isPresent();
+            throw noteExists ? new NoteVersionMismatchException() : new NoteNotFoundException();
+        }
+
+        log.info("Note with id {} updated", noteId);
+
+        var updatedNoteDto = noteMapper.toDto(updatedNote.get());
+        notePublisher.publish(new NoteChangedEvent(appuserId, NoteChangeType.UPDATED, updatedNoteDto));
+
+        return updatedNoteDto;
     }
 
     public NoteDto deleteNoteByIdForCurrentUser(UUID id) {
         var appuserId = securityService.getUser().id();
 
-        var noteToDelete = noteRepository
-                .findByIdAndAppuserId(id, appuserId)
+        var deletedNote = noteRepository
+                .deleteByIdAndAppuserId(id, appuserId)
                 .orElseThrow(NoteNotFoundException::new);
+        log.info("Note with id {} deleted", deletedNote.getId());
 
-        noteRepository.deleteById(noteToDelete.getId());
-        log.info("Note with id {} deleted", noteToDelete.getId());
+        var deletedNoteDto = noteMapper.toDto(deletedNote);
+        notePublisher.publish(new NoteChangedEvent(appuserId, NoteChangeType.DELETED, deletedNoteDto));
 
-        return noteMapper.toDto(noteToDelete);
+        return deletedNoteDto;
     }
 
     public void deleteNotesByAppuserId(UUID appuserId) {
-        noteRepository.deleteAllByAppuserId(appuserId);
-        log.info("Notes with appuserId {} deleted", appuserId);
+        var startedAt = System.nanoTime();
+        var deletedNotes = 0L;
+        int deletedChunk;
+
+        do {
+            deletedChunk = purgeChunkTimer.record(
+                    () -> noteRepository.deleteChunkByAppuserId(appuserId, PURGE_CHUNK_SIZE)
+            );
+            deletedNotes += deletedChunk;
+            purgedNotesCounter.increment(deletedChunk);
+            log.debug("Deleted {} notes so far with appuserId {}", deletedNotes, appuserId);
+        } while (deletedChunk == PURGE_CHUNK_SIZE);
+
+        noteRepository.deleteTombstonesByAppuserId(appuserId);
+
+        var elapsedNanos = Math.max(System.nanoTime() - startedAt, 1);
+        var notesPerSecond = deletedNotes * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        log.info("Notes with appuserId {} deleted ({} notes at {} notes per second)", appuserId, deletedNotes, notesPerSecond);
+    }
+
+    public void deleteNoteTombstonesOlderThan(Duration retention) {
+        var createdBefore = Instant.now().minus(retention);
+        var deletedTombstones = 0L;
+        int deletedChunk;
+
+        do {
+            deletedChunk = noteRepository.deleteTombstoneChunkCreatedBefore(createdBefore, PURGE_CHUNK_SIZE);
+            deletedTombstones += deletedChunk;
+        } while (deletedChunk == PURGE_CHUNK_SIZE);
+
+        if (deletedTombstones > 0) {
+            log.info("Deleted {} note tombstones older than {}", deletedTombstones, retention);
+        }
+    }
+
+    private String validateNoteToImport(UUID appuserId, CreateNoteDto createNoteDto) {
+        if (createNoteDto == null) {
+            return "Line is not a valid note";
+        }
+
+        var note = new Note(appuserId, createNoteDto.title(), createNoteDto.content());
+        var violations = validator
+                .validate(note)
+                .stream()
+                .filter(violation -> !"id".equals(violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+
+        return violations.isEmpty() ? null : violations;
     }
 
 }
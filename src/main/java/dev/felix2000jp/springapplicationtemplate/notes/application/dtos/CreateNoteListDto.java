@@ -0,0 +1,11 @@
+package dev.felix2000jp.springapplicationtemplate.notes.application.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record CreateNoteListDto(@NotEmpty @Size(max = 10000) List<@NotNull @Valid CreateNoteDto> notes) {
+}
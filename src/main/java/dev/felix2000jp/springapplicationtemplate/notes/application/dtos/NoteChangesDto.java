@@ -0,0 +1,15 @@
+package dev.felix2000jp.springapplicationtemplate.notes.application.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+import java.util.UUID;
+
+public record NoteChangesDto(
+        @NotNull List<NoteDto> notes,
+        @NotNull List<UUID> deletedIds,
+        @NotBlank String nextToken,
+        boolean hasMore
+) {
+}
@@ -0,0 +1,8 @@
+package dev.felix2000jp.springapplicationtemplate.notes.application.dtos;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record NoteCursorListDto(@NotNull List<NoteDto> notes, String nextCursor) {
+}
@@ -5,5 +5,5 @@ import jakarta.validation.constraints.NotNull;
 
 import java.util.UUID;
 
-public record NoteDto(@NotNull UUID id, @NotBlank String title, @NotBlank String content) {
+public record NoteDto(@NotNull UUID id, @NotBlank String title, @NotBlank String content, @NotNull Long version) {
 }
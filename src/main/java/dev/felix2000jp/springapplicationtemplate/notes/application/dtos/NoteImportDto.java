@@ -0,0 +1,13 @@
+package dev.felix2000jp.springapplicationtemplate.notes.application.dtos;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record NoteImportDto(
+        long imported,
+        long rejected,
+        long rowsPerSecond,
+        @NotNull List<NoteImportRejectionDto> rejections
+) {
+}
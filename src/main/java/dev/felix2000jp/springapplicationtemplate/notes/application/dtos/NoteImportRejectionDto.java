@@ -0,0 +1,6 @@
+package dev.felix2000jp.springapplicationtemplate.notes.application.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record NoteImportRejectionDto(long line, @NotBlank String reason) {
+}
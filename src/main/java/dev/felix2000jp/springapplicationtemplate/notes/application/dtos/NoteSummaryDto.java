@@ -0,0 +1,15 @@
+package dev.felix2000jp.springapplicationtemplate.notes.application.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.util.UUID;
+
+public record NoteSummaryDto(
+        @NotNull UUID id,
+        @NotBlank String title,
+        @NotNull String snippet,
+        @PositiveOrZero int contentLength
+) {
+}
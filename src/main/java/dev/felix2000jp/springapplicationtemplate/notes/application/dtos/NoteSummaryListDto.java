@@ -0,0 +1,8 @@
+package dev.felix2000jp.springapplicationtemplate.notes.application.dtos;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record NoteSummaryListDto(@NotNull List<NoteSummaryDto> notes) {
+}
@@ -0,0 +1,8 @@
+package dev.felix2000jp.springapplicationtemplate.notes.application.dtos;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record NoteVersionDto(@NotNull UUID id, @NotNull Long version) {
+}
@@ -0,0 +1,7 @@
+package dev.felix2000jp.springapplicationtemplate.notes.application.events;
+
+public enum NoteChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,8 @@
+package dev.felix2000jp.springapplicationtemplate.notes.application.events;
+
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
+
+import java.util.UUID;
+
+public record NoteChangedEvent(UUID appuserId, NoteChangeType type, NoteDto note) {
+}
@@ -1,16 +1,19 @@
 package dev.felix2000jp.springapplicationtemplate.notes.domain;
 
+import dev.felix2000jp.springapplicationtemplate.core.UuidV7Generator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.util.UUID;
 
 @Entity
 public class Note {
 
+    // Unique on its own only because it is always generated here, the partitioned table's key is (appuser_id, id)
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = UuidV7Generator.class)
     @NotNull
     private UUID id;
 
@@ -26,6 +29,10 @@ public class Note {
     @NotBlank
     private String content;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     public Note() {
     }
 
@@ -51,6 +58,10 @@ public class Note {
         return content;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setTitle(String title) {
         this.title = title;
     }
@@ -0,0 +1,6 @@
+package dev.felix2000jp.springapplicationtemplate.notes.domain;
+
+import java.util.UUID;
+
+public record NoteChange(UUID id, String title, String content, Long version, long sequence, boolean deleted) {
+}
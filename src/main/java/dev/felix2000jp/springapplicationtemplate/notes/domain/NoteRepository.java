@@ -1,19 +1,49 @@
 package dev.felix2000jp.springapplicationtemplate.notes.domain;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface NoteRepository {
 
-    List<Note> findAllByAppuserId(UUID appuserId, int pageNumber);
+    // A shorter page than this is the last one
+    int PAGE_SIZE = 50;
+    int CHANGES_PAGE_SIZE = 500;
+
+    List<Note> findAllByAppuserIdAfterId(UUID appuserId, UUID afterId);
+
+    void forEachByAppuserId(UUID appuserId, Consumer<Note> consumer);
+
+    List<NoteSearchHit> searchByAppuserId(UUID appuserId, String query, NoteSearchPosition after);
+
+    List<NoteChange> findChangesByAppuserIdAfter(UUID appuserId, long afterSequence);
 
     Optional<Note> findByIdAndAppuserId(UUID id, UUID appuserId);
 
-    void deleteById(UUID id);
+    Optional<Long> findVersionByIdAndAppuserId(UUID id, UUID appuserId);
+
+    Optional<Note> updateByIdAndAppuserIdAndVersion(UUID id, UUID appuserId, long version, String title, String content);
+
+    Optional<Note> updateByIdAndAppuserId(UUID id, UUID appuserId, String title, String content);
 
-    void deleteAllByAppuserId(UUID appuserId);
+    Optional<Note> deleteByIdAndAppuserId(UUID id, UUID appuserId);
+
+    int deleteChunkByAppuserId(UUID appuserId, int chunkSize);
+
+    void deleteTombstonesByAppuserId(UUID appuserId);
+
+    int deleteTombstoneChunkCreatedBefore(Instant createdBefore, int chunkSize);
+
+    // Highest change sequence whose tombstones were purged, 0 when none were
+    long findTombstoneHorizonByAppuserId(UUID appuserId);
 
     void save(Note note);
 
+    void saveAll(List<Note> notes);
+
+    long copyAll(Stream<Note> notes);
+
 }
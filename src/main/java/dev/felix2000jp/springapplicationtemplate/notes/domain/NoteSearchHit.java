@@ -0,0 +1,11 @@
+package dev.felix2000jp.springapplicationtemplate.notes.domain;
+
+import java.util.UUID;
+
+public record NoteSearchHit(UUID id, String title, String content, float rank, long version) {
+
+    public NoteSearchPosition toPosition() {
+        return new NoteSearchPosition(rank, id);
+    }
+
+}
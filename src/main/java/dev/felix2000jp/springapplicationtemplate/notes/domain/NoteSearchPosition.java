@@ -0,0 +1,6 @@
+package dev.felix2000jp.springapplicationtemplate.notes.domain;
+
+import java.util.UUID;
+
+public record NoteSearchPosition(float rank, UUID id) {
+}
@@ -0,0 +1,9 @@
+package dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions;
+
+public class InvalidNoteCursorException extends RuntimeException {
+
+    public InvalidNoteCursorException() {
+        super("Note cursor is not valid");
+    }
+
+}
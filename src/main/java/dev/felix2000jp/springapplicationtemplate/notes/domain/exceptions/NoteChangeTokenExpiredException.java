@@ -0,0 +1,9 @@
+package dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions;
+
+public class NoteChangeTokenExpiredException extends RuntimeException {
+
+    public NoteChangeTokenExpiredException() {
+        super("Note change token is older than the kept deletes, sync again without a token");
+    }
+
+}
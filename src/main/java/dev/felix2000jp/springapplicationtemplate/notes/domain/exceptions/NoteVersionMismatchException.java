@@ -0,0 +1,9 @@
+package dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions;
+
+public class NoteVersionMismatchException extends RuntimeException {
+
+    public NoteVersionMismatchException() {
+        super("Note version does not match the current version");
+    }
+
+}
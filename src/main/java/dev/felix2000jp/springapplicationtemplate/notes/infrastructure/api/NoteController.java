@@ -2,17 +2,43 @@ package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.api;
 
 import dev.felix2000jp.springapplicationtemplate.notes.application.NoteService;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.CreateNoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.CreateNoteListDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteChangesDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteCursorListDto;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteImportDto;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteListDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteSummaryListDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteVersionDto;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.UpdateNoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.NoteVersionMismatchException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Validated
 @RestController
@@ -20,21 +46,96 @@ import java.util.UUID;
 class NoteController {
 
     private final NoteService noteService;
+    private final NoteStreamHub noteStreamHub;
+    private final ObjectMapper objectMapper;
 
-    NoteController(NoteService noteService) {
+    NoteController(NoteService noteService, NoteStreamHub noteStreamHub, ObjectMapper objectMapper) {
         this.noteService = noteService;
+        this.noteStreamHub = noteStreamHub;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
-    ResponseEntity<NoteListDto> getNotesForCurrentUser(@RequestParam(defaultValue = "0") @Min(0) int page) {
+    ResponseEntity<NoteListDto> getNotesForCurrentUser(@RequestParam(defaultValue = "0") @Min(0) int page, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            var etag = toEtag(noteService.getNoteVersionsForCurrentUser(page));
+
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
         var body = noteService.getNotesForCurrentUser(page);
+        var versions = body.notes().stream().map(note -> new NoteVersionDto(note.id(), note.version())).toList();
+        return ResponseEntity.ok().eTag(toEtag(versions)).body(body);
+    }
+
+    @GetMapping(params = "view=summary")
+    ResponseEntity<NoteSummaryListDto> getNoteSummariesForCurrentUser(@RequestParam(defaultValue = "0") @Min(0) int page) {
+        var body = noteService.getNoteSummariesForCurrentUser(page);
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping(params = "after")
+    ResponseEntity<NoteCursorListDto> getNotesForCurrentUserAfter(@RequestParam String after) {
+        var body = noteService.getNotesForCurrentUserAfter(after);
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping("/changes")
+    ResponseEntity<NoteChangesDto> getNoteChangesForCurrentUser(@RequestParam(required = false) String since) {
+        var body = noteService.getNoteChangesForCurrentUser(since);
+        return ResponseEntity.ok(body);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    SseEmitter streamNoteChangesForCurrentUser() {
+        return noteStreamHub.subscribe(noteService.getCurrentAppuserId());
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> exportNotesForCurrentUser() {
+        StreamingResponseBody body = outputStream -> {
+            var isFirstLine = new AtomicBoolean(true);
+
+            noteService.exportNotesForCurrentUser(noteDto -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(noteDto));
+                    outputStream.write('\n');
+
+                    if (isFirstLine.getAndSet(false)) {
+                        outputStream.flush();
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/search")
+    ResponseEntity<NoteCursorListDto> searchNotesForCurrentUser(
+            @RequestParam @NotBlank String q,
+            @RequestParam(required = false) String after
+    ) {
+        var body = noteService.searchNotesForCurrentUser(q, after);
         return ResponseEntity.ok(body);
     }
 
     @GetMapping("/{id}")
-    ResponseEntity<NoteDto> getNoteByIdForCurrentUser(@PathVariable UUID id) {
+    ResponseEntity<NoteDto> getNoteByIdForCurrentUser(@PathVariable UUID id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            var etag = toEtag(noteService.getNoteVersionByIdForCurrentUser(id));
+
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
         var body = noteService.getNoteByIdForCurrentUser(id);
-        return ResponseEntity.ok(body);
+        return ResponseEntity.ok().eTag(toEtag(body.version())).body(body);
     }
 
     @PostMapping
@@ -44,10 +145,30 @@ class NoteController {
         return ResponseEntity.created(location).body(body);
     }
 
+    @PostMapping("/bulk")
+    ResponseEntity<NoteListDto> createNotesForCurrentUser(@RequestBody @Valid CreateNoteListDto createNoteListDto) {
+        var body = noteService.createNotesForCurrentUser(createNoteListDto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<NoteImportDto> importNotesForCurrentUser(InputStream inputStream) throws IOException {
+        try (var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            var createNoteDtos = reader.lines().map(this::parseCreateNoteDto);
+            var body = noteService.importNotesForCurrentUser(createNoteDtos);
+            return ResponseEntity.ok(body);
+        }
+    }
+
     @PutMapping("/{id}")
-    ResponseEntity<Void> updateNoteByIdForCurrentUser(@PathVariable UUID id, @RequestBody @Valid UpdateNoteDto updateNoteDto) {
-        noteService.updateNoteByIdForCurrentUser(id, updateNoteDto);
-        return ResponseEntity.noContent().build();
+    ResponseEntity<Void> updateNoteByIdForCurrentUser(
+            @PathVariable UUID id,
+            @RequestBody @Valid UpdateNoteDto updateNoteDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        var expectedVersion = ifMatch == null || ifMatch.equals("*") ? null : fromEtag(ifMatch);
+        var updatedNote = noteService.updateNoteByIdForCurrentUser(id, updateNoteDto, expectedVersion);
+        return ResponseEntity.noContent().eTag(toEtag(updatedNote.version())).build();
     }
 
     @DeleteMapping("/{id}")
@@ -56,4 +177,39 @@ class NoteController {
         return ResponseEntity.noContent().build();
     }
 
+    private CreateNoteDto parseCreateNoteDto(String line) {
+        try {
+            return objectMapper.readValue(line, CreateNoteDto.class);
+        } catch (JsonProcessingException ex) {
+            return null;
+        }
+    }
+
+    private static String toEtag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    private static String toEtag(List<NoteVersionDto> versions) {
+        var buffer = ByteBuffer.allocate(versions.size() * 3 * Long.BYTES);
+        versions.forEach(version -> buffer
+                .putLong(version.id().getMostSignificantBits())
+                .putLong(version.id().getLeastSignificantBits())
+                .putLong(version.version())
+        );
+
+        return "\"" + DigestUtils.md5DigestAsHex(buffer.array()) + "\"";
+    }
+
+    private static long fromEtag(String etag) {
+        if (etag.length() < 3 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            throw new NoteVersionMismatchException();
+        }
+
+        try {
+            return Long.parseLong(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException ex) {
+            throw new NoteVersionMismatchException();
+        }
+    }
+
 }
@@ -1,6 +1,9 @@
 package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.api;
 
+import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.InvalidNoteCursorException;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.NoteChangeTokenExpiredException;
 import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.NoteNotFoundException;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.NoteVersionMismatchException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.Ordered;
@@ -26,4 +29,28 @@ class NoteExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.of(problemDetails).build();
     }
 
+    @ExceptionHandler(InvalidNoteCursorException.class)
+    ResponseEntity<ProblemDetail> handleInvalidNoteCursorException(InvalidNoteCursorException ex) {
+        var problemDetails = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+
+        log.warn(ex.getMessage(), ex);
+        return ResponseEntity.of(problemDetails).build();
+    }
+
+    @ExceptionHandler(NoteChangeTokenExpiredException.class)
+    ResponseEntity<ProblemDetail> handleNoteChangeTokenExpiredException(NoteChangeTokenExpiredException ex) {
+        var problemDetails = ProblemDetail.forStatusAndDetail(HttpStatus.GONE, ex.getMessage());
+
+        log.warn(ex.getMessage(), ex);
+        return ResponseEntity.of(problemDetails).build();
+    }
+
+    @ExceptionHandler(NoteVersionMismatchException.class)
+    ResponseEntity<ProblemDetail> handleNoteVersionMismatchException(NoteVersionMismatchException ex) {
+        var problemDetails = ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+
+        log.warn(ex.getMessage(), ex);
+        return ResponseEntity.of(problemDetails).build();
+    }
+
 }
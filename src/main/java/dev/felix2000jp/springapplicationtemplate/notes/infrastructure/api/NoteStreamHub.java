@@ -0,0 +1,112 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.api;
+
+import dev.felix2000jp.springapplicationtemplate.notes.application.events.NoteChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+class NoteStreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteStreamHub.class);
+
+    @Value("${notes.stream.buffer-size}")
+    private int bufferSize;
+    @Value("${notes.stream.timeout-in-minutes}")
+    private int timeoutInMinutes;
+
+    private final Map<UUID, Set<NoteStreamSubscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Counter evictedSubscribersCounter;
+
+    NoteStreamHub(MeterRegistry meterRegistry) {
+        Gauge
+                .builder("notes.stream.subscribers", this, NoteStreamHub::countSubscribers)
+                .description("Open note change streams")
+                .register(meterRegistry);
+        this.evictedSubscribersCounter = Counter
+                .builder("notes.stream.evicted")
+                .description("Note change streams closed because the client did not keep up")
+                .register(meterRegistry);
+    }
+
+    SseEmitter subscribe(UUID appuserId) {
+        return subscribe(appuserId, new SseEmitter(Duration.ofMinutes(timeoutInMinutes).toMillis()));
+    }
+
+    SseEmitter subscribe(UUID appuserId, SseEmitter emitter) {
+        var subscriber = new NoteStreamSubscriber(emitter, bufferSize);
+
+        emitter.onCompletion(() -> unsubscribe(appuserId, subscriber));
+        emitter.onTimeout(() -> unsubscribe(appuserId, subscriber));
+        emitter.onError(ex -> unsubscribe(appuserId, subscriber));
+
+        // Adding inside compute keeps a concurrent unsubscribe from removing the set this subscriber is added to
+        subscribers.compute(appuserId, (unused, appuserSubscribers) -> {
+            var subscribersOfAppuser = appuserSubscribers == null
+                    ? ConcurrentHashMap.<NoteStreamSubscriber>newKeySet()
+                    : appuserSubscribers;
+            subscribersOfAppuser.add(subscriber);
+            return subscribersOfAppuser;
+        });
+        subscriber.start();
+
+        return emitter;
+    }
+
+    @EventListener
+    void on(NoteChangedEvent event) {
+        var appuserSubscribers = subscribers.get(event.appuserId());
+
+        if (appuserSubscribers == null) {
+            return;
+        }
+
+        var message = new NoteStreamMessage(event.type().name().toLowerCase(), event.note());
+        appuserSubscribers.forEach(subscriber -> offer(event.appuserId(), subscriber, message));
+    }
+
+    @Scheduled(fixedRateString = "${notes.stream.heartbeat-interval-in-seconds}", timeUnit = TimeUnit.SECONDS)
+    void sendHeartbeats() {
+        subscribers.forEach((appuserId, appuserSubscribers) -> appuserSubscribers.forEach(
+                subscriber -> offer(appuserId, subscriber, NoteStreamMessage.HEARTBEAT)
+        ));
+    }
+
+    int countSubscribers() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void offer(UUID appuserId, NoteStreamSubscriber subscriber, NoteStreamMessage message) {
+        if (subscriber.offer(message)) {
+            return;
+        }
+
+        unsubscribe(appuserId, subscriber);
+        subscriber.evict();
+        evictedSubscribersCounter.increment();
+        log.warn("Evicted note stream subscriber of appuser {} because its buffer is full", appuserId);
+    }
+
+    private void unsubscribe(UUID appuserId, NoteStreamSubscriber subscriber) {
+        subscriber.stop();
+        subscribers.computeIfPresent(appuserId, (unused, appuserSubscribers) -> {
+            appuserSubscribers.remove(subscriber);
+            return appuserSubscribers.isEmpty() ? null : appuserSubscribers;
+        });
+    }
+
+}
@@ -0,0 +1,19 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.api;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+record NoteStreamMessage(String name, Object data) {
+
+    static final NoteStreamMessage HEARTBEAT = new NoteStreamMessage(null, null);
+
+    // Event builders are stateful and cannot be shared between emitters, so every subscriber builds its own
+    SseEmitter.SseEventBuilder toEvent() {
+        if (name == null) {
+            return SseEmitter.event().comment("heartbeat");
+        }
+
+        return SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+    }
+
+}
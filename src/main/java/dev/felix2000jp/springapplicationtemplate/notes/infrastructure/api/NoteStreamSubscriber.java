@@ -0,0 +1,51 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.api;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+class NoteStreamSubscriber {
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<NoteStreamMessage> messages;
+    private final Thread drainer;
+
+    NoteStreamSubscriber(SseEmitter emitter, int bufferSize) {
+        this.emitter = emitter;
+        this.messages = new ArrayBlockingQueue<>(bufferSize);
+        this.drainer = Thread.ofVirtual().name("note-stream-subscriber").unstarted(this::drain);
+    }
+
+    void start() {
+        drainer.start();
+    }
+
+    boolean offer(NoteStreamMessage message) {
+        return messages.offer(message);
+    }
+
+    void stop() {
+        drainer.interrupt();
+    }
+
+    void evict() {
+        stop();
+        emitter.complete();
+    }
+
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                var message = messages.take();
+                emitter.send(message.toEvent());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException ex) {
+            emitter.completeWithError(ex);
+        }
+    }
+
+}
@@ -24,7 +24,7 @@ class NoteViewController {
 
     @GetMapping
     String getNotesForCurrentUser(@RequestParam(defaultValue = "0") @Min(0) int page, Model model) {
-        var body = noteService.getNotesForCurrentUser(page);
+        var body = noteService.getNoteSummariesForCurrentUser(page);
         model.addAttribute("notes", body.notes());
 
         return "index";
@@ -0,0 +1,62 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.database;
+
+import dev.felix2000jp.springapplicationtemplate.core.database.ReadYourWrites;
+import dev.felix2000jp.springapplicationtemplate.notes.application.NoteQueries;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteSummaryDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteVersionDto;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+class DefaultNoteQueries implements NoteQueries {
+
+    private final NoteJpaRepository noteJpaRepository;
+    private final NoteCache noteCache;
+
+    DefaultNoteQueries(NoteJpaRepository noteJpaRepository, NoteCache noteCache) {
+        this.noteJpaRepository = noteJpaRepository;
+        this.noteCache = noteCache;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<NoteDto> findAllByAppuserId(UUID appuserId, int pageNumber) {
+        var pageable = PageRequest.of(pageNumber, NoteRepository.PAGE_SIZE);
+        return noteJpaRepository.findDtosByAppuserId(appuserId, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<NoteVersionDto> findAllVersionsByAppuserId(UUID appuserId, int pageNumber) {
+        var pageable = PageRequest.of(pageNumber, NoteRepository.PAGE_SIZE);
+        return noteJpaRepository.findVersionDtosByAppuserId(appuserId, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<NoteSummaryDto> findAllSummariesByAppuserId(UUID appuserId, int pageNumber) {
+        var pageable = PageRequest.of(pageNumber, NoteRepository.PAGE_SIZE);
+        return noteJpaRepository
+                .findSummariesByAppuserId(appuserId, pageable)
+                .stream()
+                .map(row -> new NoteSummaryDto(row.getId(), row.getTitle(), row.getSnippet(), row.getContentLength()))
+                .toList();
+    }
+
+    // Not transactional, a cache hit never opens a transaction or takes a connection. A miss is cached for minutes, so it
+    // is read from the primary instead of a replica that may not have the last update yet
+    @Override
+    public Optional<NoteDto> findByIdAndAppuserId(UUID id, UUID appuserId) {
+        return noteCache.get(id, appuserId, () -> ReadYourWrites.readFromPrimary(
+                () -> noteJpaRepository.findDtoByIdAndAppuserId(id, appuserId)
+        ));
+    }
+
+}
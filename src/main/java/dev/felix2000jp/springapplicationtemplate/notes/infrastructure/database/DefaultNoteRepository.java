@@ -1,32 +1,105 @@
 package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.database;
 
+import dev.felix2000jp.springapplicationtemplate.core.UuidV7Generator;
 import dev.felix2000jp.springapplicationtemplate.notes.domain.Note;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteChange;
 import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteRepository;
-import org.springframework.data.domain.PageRequest;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteSearchHit;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteSearchPosition;
+import jakarta.persistence.EntityManager;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 class DefaultNoteRepository implements NoteRepository {
 
-    private static final int PAGE_SIZE = 50;
+    private static final int SAVE_ALL_CHUNK_SIZE = 500;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final String COPY_SQL = "COPY note (id, appuser_id, title, content) FROM STDIN WITH (FORMAT csv)";
 
     private final NoteJpaRepository noteJpaRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final NoteCache noteCache;
 
-    DefaultNoteRepository(NoteJpaRepository noteJpaRepository) {
+    DefaultNoteRepository(
+            NoteJpaRepository noteJpaRepository,
+            EntityManager entityManager,
+            JdbcTemplate jdbcTemplate,
+            NoteCache noteCache
+    ) {
         this.noteJpaRepository = noteJpaRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.noteCache = noteCache;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Note> findAllByAppuserId(UUID appuserId, int pageNumber) {
-        var pageable = PageRequest.of(pageNumber, PAGE_SIZE);
-        var page = noteJpaRepository.findByAppuserId(appuserId, pageable);
-        return page.getContent();
+    public List<Note> findAllByAppuserIdAfterId(UUID appuserId, UUID afterId) {
+        var limit = Limit.of(PAGE_SIZE);
+
+        if (afterId == null) {
+            return noteJpaRepository.findByAppuserIdOrderById(appuserId, limit);
+        }
+
+        return noteJpaRepository.findByAppuserIdAndIdGreaterThanOrderById(appuserId, afterId, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachByAppuserId(UUID appuserId, Consumer<Note> consumer) {
+        try (var notes = noteJpaRepository.streamByAppuserIdOrderById(appuserId)) {
+            notes.forEach(note -> {
+                consumer.accept(note);
+                entityManager.detach(note);
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<NoteSearchHit> searchByAppuserId(UUID appuserId, String query, NoteSearchPosition after) {
+        var rows = after == null
+                ? noteJpaRepository.search(appuserId, query, PAGE_SIZE)
+                : noteJpaRepository.searchAfter(appuserId, query, after.rank(), after.id(), PAGE_SIZE);
+
+        return rows
+                .stream()
+                .map(row -> new NoteSearchHit(row.getId(), row.getTitle(), row.getContent(), row.getRank(), row.getVersion()))
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<NoteChange> findChangesByAppuserIdAfter(UUID appuserId, long afterSequence) {
+        return noteJpaRepository
+                .findChangesByAppuserIdAfter(appuserId, afterSequence, CHANGES_PAGE_SIZE)
+                .stream()
+                .map(row -> new NoteChange(
+                        row.getId(),
+                        row.getTitle(),
+                        row.getContent(),
+                        row.getVersion(),
+                        row.getSequence(),
+                        row.getDeleted()
+                ))
+                .toList();
     }
 
     @Override
@@ -35,16 +108,55 @@ class DefaultNoteRepository implements NoteRepository {
         return noteJpaRepository.findByIdAndAppuserId(id, appuserId);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersionByIdAndAppuserId(UUID id, UUID appuserId) {
+        return noteJpaRepository.findVersionByIdAndAppuserId(id, appuserId);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Note> updateByIdAndAppuserIdAndVersion(UUID id, UUID appuserId, long version, String title, String content) {
+        noteCache.evict(id, appuserId);
+        return noteJpaRepository.updateByIdAndAppuserIdAndVersion(id, appuserId, version, title, content);
+    }
+
     @Override
     @Transactional
-    public void deleteById(UUID id) {
-        noteJpaRepository.deleteById(id);
+    public Optional<Note> updateByIdAndAppuserId(UUID id, UUID appuserId, String title, String content) {
+        noteCache.evict(id, appuserId);
+        return noteJpaRepository.updateByIdAndAppuserId(id, appuserId, title, content);
     }
 
     @Override
     @Transactional
-    public void deleteAllByAppuserId(UUID appuserId) {
-        noteJpaRepository.deleteAllByAppuserId(appuserId);
+    public Optional<Note> deleteByIdAndAppuserId(UUID id, UUID appuserId) {
+        noteCache.evict(id, appuserId);
+        return noteJpaRepository.deleteByIdAndAppuserId(id, appuserId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int deleteChunkByAppuserId(UUID appuserId, int chunkSize) {
+        return noteJpaRepository.deleteChunkByAppuserId(appuserId, chunkSize);
+    }
+
+    @Override
+    @Transactional
+    public void deleteTombstonesByAppuserId(UUID appuserId) {
+        noteJpaRepository.deleteTombstonesByAppuserId(appuserId);
+    }
+
+    @Override
+    @Transactional
+    public int deleteTombstoneChunkCreatedBefore(Instant createdBefore, int chunkSize) {
+        return (int) noteJpaRepository.deleteTombstoneChunkCreatedBefore(createdBefore, chunkSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long findTombstoneHorizonByAppuserId(UUID appuserId) {
+        return noteJpaRepository.findTombstoneHorizonByAppuserId(appuserId).orElse(0L);
     }
 
     @Override
@@ -53,4 +165,63 @@ class DefaultNoteRepository implements NoteRepository {
         noteJpaRepository.save(note);
     }
 
+    @Override
+    @Transactional
+    public void saveAll(List<Note> notes) {
+        for (var fromIndex = 0; fromIndex < notes.size(); fromIndex += SAVE_ALL_CHUNK_SIZE) {
+            var toIndex = Math.min(fromIndex + SAVE_ALL_CHUNK_SIZE, notes.size());
+            noteJpaRepository.saveAll(notes.subList(fromIndex, toIndex));
+
+            // Sends the chunk as jdbc batches and keeps the persistence context small
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    @Override
+    @Transactional
+    public long copyAll(Stream<Note> notes) {
+        var copiedRows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            var copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+
+            try {
+                var rows = new StringBuilder(COPY_BUFFER_SIZE);
+
+                notes.forEach(note -> {
+                    rows.append(UuidV7Generator.next()).append(',').append(note.getAppuserId()).append(',');
+                    appendCsvValue(rows, note.getTitle()).append(',');
+                    appendCsvValue(rows, note.getContent()).append('\n');
+
+                    if (rows.length() >= COPY_BUFFER_SIZE) {
+                        writeToCopy(copyIn, rows);
+                    }
+                });
+
+                writeToCopy(copyIn, rows);
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+
+        return copiedRows == null ? 0 : copiedRows;
+    }
+
+    private static StringBuilder appendCsvValue(StringBuilder rows, String value) {
+        return rows.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder rows) {
+        var bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        rows.setLength(0);
+
+        try {
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not write notes to copy stream", ex);
+        }
+    }
+
 }
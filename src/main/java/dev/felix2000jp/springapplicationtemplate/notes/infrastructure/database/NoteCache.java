@@ -0,0 +1,63 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.database;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.felix2000jp.springapplicationtemplate.core.CacheEviction;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@Component
+public class NoteCache {
+
+    private static final int NOTE_BASE_WEIGHT = 128;
+
+    // Immutable dtos, every reader gets the same instance and none of them can change it for the others
+    private final Cache<NoteCacheKey, NoteDto> cache;
+
+    NoteCache(
+            MeterRegistry meterRegistry,
+            @Value("${notes.cache.maximum-weight}") long maximumWeight,
+            @Value("${notes.cache.expire-after-write-in-minutes}") int expireAfterWriteInMinutes
+    ) {
+        this.cache = Caffeine
+                .newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher(NoteCache::weigh)
+                .expireAfterWrite(Duration.ofMinutes(expireAfterWriteInMinutes))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "notes");
+    }
+
+    Optional<NoteDto> get(UUID id, UUID appuserId, Supplier<Optional<NoteDto>> loader) {
+        var key = new NoteCacheKey(appuserId, id);
+        var note = cache.get(key, unused -> loader.get().orElse(null));
+        return Optional.ofNullable(note);
+    }
+
+    void evict(UUID id, UUID appuserId) {
+        var key = new NoteCacheKey(appuserId, id);
+        CacheEviction.evictNowAndAfterCompletion(() -> cache.invalidate(key));
+    }
+
+    public void evictAllByAppuserId(UUID appuserId) {
+        CacheEviction.evictNowAndAfterCompletion(() -> cache.asMap().keySet().removeIf(key -> key.appuserId().equals(appuserId)));
+    }
+
+    private static int weigh(NoteCacheKey key, NoteDto note) {
+        return NOTE_BASE_WEIGHT + 2 * (note.title().length() + note.content().length());
+    }
+
+    private record NoteCacheKey(UUID appuserId, UUID id) {
+    }
+
+}
@@ -1,19 +1,214 @@
 package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.database;
 
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteVersionDto;
 import dev.felix2000jp.springapplicationtemplate.notes.domain.Note;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 interface NoteJpaRepository extends JpaRepository<Note, UUID> {
 
-    Page<Note> findByAppuserId(UUID appuserId, Pageable pageable);
+    @Query("""
+            SELECT new dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto(n.id, n.title, n.content, n.version)
+            FROM Note n
+            WHERE n.appuserId = :appuserId
+            ORDER BY n.id
+            """)
+    List<NoteDto> findDtosByAppuserId(UUID appuserId, Pageable pageable);
+
+    // Loaded outside of any caller transaction when the note cache misses, the caller pins it to the primary
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto(n.id, n.title, n.content, n.version)
+            FROM Note n
+            WHERE n.id = :id AND n.appuserId = :appuserId
+            """)
+    Optional<NoteDto> findDtoByIdAndAppuserId(UUID id, UUID appuserId);
+
+    @Query("""
+            SELECT new dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteVersionDto(n.id, n.version)
+            FROM Note n
+            WHERE n.appuserId = :appuserId
+            ORDER BY n.id
+            """)
+    List<NoteVersionDto> findVersionDtosByAppuserId(UUID appuserId, Pageable pageable);
+
+    @Query(value = """
+            SELECT n.id AS id, n.title AS title, n.snippet AS snippet, n.content_length AS "contentLength"
+            FROM note n
+            WHERE n.appuser_id = :appuserId
+            ORDER BY n.id
+            """, nativeQuery = true)
+    List<NoteSummaryRow> findSummariesByAppuserId(UUID appuserId, Pageable pageable);
+
+    List<Note> findByAppuserIdOrderById(UUID appuserId, Limit limit);
+
+    List<Note> findByAppuserIdAndIdGreaterThanOrderById(UUID appuserId, UUID id, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Note> streamByAppuserIdOrderById(UUID appuserId);
+
+    @Query(value = """
+            SELECT n.id AS id, n.title AS title, n.content AS content, n.version AS version,
+                   ts_rank(n.search_vector, q.query) AS rank
+            FROM note n, websearch_to_tsquery('english', :query) AS q(query)
+            WHERE n.appuser_id = :appuserId AND n.search_vector @@ q.query
+            ORDER BY rank DESC, n.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<NoteSearchRow> search(UUID appuserId, String query, int limit);
+
+    @Query(value = """
+            SELECT n.id AS id, n.title AS title, n.content AS content, n.version AS version,
+                   ts_rank(n.search_vector, q.query) AS rank
+            FROM note n, websearch_to_tsquery('english', :query) AS q(query)
+            WHERE n.appuser_id = :appuserId AND n.search_vector @@ q.query
+              AND (ts_rank(n.search_vector, q.query) < :afterRank
+                OR (ts_rank(n.search_vector, q.query) = :afterRank AND n.id > :afterId))
+            ORDER BY rank DESC, n.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<NoteSearchRow> searchAfter(UUID appuserId, String query, float afterRank, UUID afterId, int limit);
+
+    @Query(value = """
+            SELECT n.id AS id, n.title AS title, n.content AS content, n.version AS version, n.change_seq AS sequence,
+                   false AS deleted
+            FROM note n
+            WHERE n.appuser_id = :appuserId AND n.change_seq > :afterSequence
+            UNION ALL
+            SELECT t.id AS id, NULL AS title, NULL AS content, NULL AS version, t.change_seq AS sequence,
+                   true AS deleted
+            FROM note_tombstone t
+            WHERE t.appuser_id = :appuserId AND t.change_seq > :afterSequence
+            ORDER BY sequence
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<NoteChangeRow> findChangesByAppuserIdAfter(UUID appuserId, long afterSequence, int limit);
 
     Optional<Note> findByIdAndAppuserId(UUID id, UUID appuserId);
 
-    void deleteAllByAppuserId(UUID appuserId);
+    @Query("SELECT n.version FROM Note n WHERE n.id = :id AND n.appuserId = :appuserId")
+    Optional<Long> findVersionByIdAndAppuserId(UUID id, UUID appuserId);
+
+    @Query(value = """
+            UPDATE note
+            SET title = :title, content = :content, version = version + 1
+            WHERE id = :id AND appuser_id = :appuserId AND version = :version
+            RETURNING *
+            """, nativeQuery = true)
+    Optional<Note> updateByIdAndAppuserIdAndVersion(UUID id, UUID appuserId, long version, String title, String content);
+
+    @Query(value = """
+            UPDATE note
+            SET title = :title, content = :content, version = version + 1
+            WHERE id = :id AND appuser_id = :appuserId
+            RETURNING *
+            """, nativeQuery = true)
+    Optional<Note> updateByIdAndAppuserId(UUID id, UUID appuserId, String title, String content);
+
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM note WHERE id = :id AND appuser_id = :appuserId RETURNING *
+            ), tombstone AS (
+                INSERT INTO note_tombstone (id, appuser_id) SELECT id, appuser_id FROM deleted
+            )
+            SELECT * FROM deleted
+            """, nativeQuery = true)
+    Optional<Note> deleteByIdAndAppuserId(UUID id, UUID appuserId);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM note
+            WHERE appuser_id = :appuserId
+              AND ctid IN (SELECT ctid FROM note WHERE appuser_id = :appuserId LIMIT :chunkSize)
+            """, nativeQuery = true)
+    int deleteChunkByAppuserId(UUID appuserId, int chunkSize);
+
+    @Modifying
+    @Query(value = """
+            WITH horizon AS (
+                DELETE FROM note_tombstone_horizon WHERE appuser_id = :appuserId
+            )
+            DELETE FROM note_tombstone WHERE appuser_id = :appuserId
+            """, nativeQuery = true)
+    void deleteTombstonesByAppuserId(UUID appuserId);
+
+    // Remembers the highest change_seq purged per appuser in the same statement, so a reader never sees the tombstones
+    // gone without the horizon that tells it its token is too old
+    @Query(value = """
+            WITH purged AS (
+                DELETE FROM note_tombstone
+                WHERE ctid IN (SELECT ctid FROM note_tombstone WHERE created_at < :createdBefore LIMIT :chunkSize)
+                RETURNING appuser_id, change_seq
+            ), horizon AS (
+                INSERT INTO note_tombstone_horizon (appuser_id, change_seq)
+                SELECT appuser_id, max(change_seq) FROM purged GROUP BY appuser_id
+                ON CONFLICT (appuser_id) DO UPDATE
+                    SET change_seq = greatest(note_tombstone_horizon.change_seq, excluded.change_seq)
+            )
+            SELECT count(*) FROM purged
+            """, nativeQuery = true)
+    long deleteTombstoneChunkCreatedBefore(Instant createdBefore, int chunkSize);
+
+    @Query(value = "SELECT change_seq FROM note_tombstone_horizon WHERE appuser_id = :appuserId", nativeQuery = true)
+    Optional<Long> findTombstoneHorizonByAppuserId(UUID appuserId);
+
+    interface NoteSearchRow {
+
+        UUID getId();
+
+        String getTitle();
+
+        String getContent();
+
+        Long getVersion();
+
+        Float getRank();
+
+    }
+
+    interface NoteChangeRow {
+
+        UUID getId();
+
+        String getTitle();
+
+        String getContent();
+
+        Long getVersion();
+
+        Long getSequence();
+
+        Boolean getDeleted();
+
+    }
+
+    interface NoteSummaryRow {
+
+        UUID getId();
+
+        String getTitle();
+
+        String getSnippet();
+
+        Integer getContentLength();
+
+    }
 
 }
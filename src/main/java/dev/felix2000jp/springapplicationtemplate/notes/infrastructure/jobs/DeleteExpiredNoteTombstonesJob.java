@@ -0,0 +1,27 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.jobs;
+
+import dev.felix2000jp.springapplicationtemplate.notes.application.NoteService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+class DeleteExpiredNoteTombstonesJob {
+
+    @Value("${notes.changes.tombstone-retention-in-days}")
+    private int tombstoneRetentionInDays;
+
+    private final NoteService noteService;
+
+    DeleteExpiredNoteTombstonesJob(NoteService noteService) {
+        this.noteService = noteService;
+    }
+
+    @Scheduled(cron = "${notes.changes.tombstone-cron-job}")
+    void deleteExpiredNoteTombstones() {
+        noteService.deleteNoteTombstonesOlderThan(Duration.ofDays(tombstoneRetentionInDays));
+    }
+
+}
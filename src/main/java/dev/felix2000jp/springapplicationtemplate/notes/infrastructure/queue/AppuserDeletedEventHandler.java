@@ -2,21 +2,31 @@ package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.queue;
 
 import dev.felix2000jp.springapplicationtemplate.auth.application.events.AppuserDeletedEvent;
 import dev.felix2000jp.springapplicationtemplate.notes.application.NoteService;
-import org.springframework.modulith.events.ApplicationModuleListener;
+import dev.felix2000jp.springapplicationtemplate.notes.infrastructure.database.NoteCache;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Component
 class AppuserDeletedEventHandler {
 
     private final NoteService noteService;
+    private final NoteCache noteCache;
 
-    AppuserDeletedEventHandler(NoteService noteService) {
+    AppuserDeletedEventHandler(NoteService noteService, NoteCache noteCache) {
         this.noteService = noteService;
+        this.noteCache = noteCache;
     }
 
-    @ApplicationModuleListener
+    // Not an @ApplicationModuleListener on purpose: the purge commits every chunk on its own and must not run inside
+    // one long transaction wrapping the whole listener
+    @Async
+    @TransactionalEventListener
     void on(AppuserDeletedEvent event) {
         noteService.deleteNotesByAppuserId(event.appuserId());
+
+        // Once for the whole purge, evicting on every chunk scanned the cache once per thousand notes
+        noteCache.evictAllByAppuserId(event.appuserId());
     }
 
 }
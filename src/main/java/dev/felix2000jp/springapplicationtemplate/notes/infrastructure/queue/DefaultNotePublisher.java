@@ -0,0 +1,22 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.queue;
+
+import dev.felix2000jp.springapplicationtemplate.notes.application.NotePublisher;
+import dev.felix2000jp.springapplicationtemplate.notes.application.events.NoteChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@Component
+class DefaultNotePublisher implements NotePublisher {
+
+    private final ApplicationEventPublisher events;
+
+    DefaultNotePublisher(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    @Override
+    public void publish(NoteChangedEvent event) {
+        events.publishEvent(event);
+    }
+
+}
@@ -0,0 +1,24 @@
+-- Scopes become bits of appuser.scopes: ADMIN = 1, APPLICATION = 2 (see SecurityScope)
+ALTER TABLE appuser ADD COLUMN IF NOT EXISTS scopes integer NOT NULL DEFAULT 0;
+
+DO
+$$
+    BEGIN
+        IF EXISTS (SELECT 1 FROM appuser_authority WHERE scope NOT IN ('ADMIN', 'APPLICATION')) THEN
+            RAISE EXCEPTION 'appuser_authority contains scopes without a bit in appuser.scopes';
+        END IF;
+    END
+$$;
+
+UPDATE appuser
+SET scopes = authority.bits
+FROM (SELECT appuser_id, bit_or(CASE scope WHEN 'ADMIN' THEN 1 WHEN 'APPLICATION' THEN 2 END) AS bits
+      FROM appuser_authority
+      GROUP BY appuser_id) AS authority
+WHERE appuser.id = authority.appuser_id;
+
+DROP TABLE appuser_authority;
+
+-- Authentication reads every column it needs straight from the username index
+CREATE UNIQUE INDEX IF NOT EXISTS ix_appuser_username ON appuser (username) INCLUDE (id, password, scopes);
+ALTER TABLE appuser DROP CONSTRAINT IF EXISTS appuser_username_key;
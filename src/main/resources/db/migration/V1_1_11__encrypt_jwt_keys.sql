@@ -0,0 +1,11 @@
+-- Private keys are only stored encrypted with jwt.keys.encryption-key, which never is in the database. Keys stored
+-- before keep verifying with their public half until they retire but do not sign anymore
+ALTER TABLE jwt_key ADD COLUMN IF NOT EXISTS public_jwk text;
+ALTER TABLE jwt_key ADD COLUMN IF NOT EXISTS encrypted_jwk bytea;
+
+UPDATE jwt_key
+SET public_jwk = (jwk::jsonb - 'd' - 'p' - 'q' - 'dp' - 'dq' - 'qi' - 'oth')::text
+WHERE public_jwk IS NULL;
+
+ALTER TABLE jwt_key ALTER COLUMN public_jwk SET NOT NULL;
+ALTER TABLE jwt_key DROP COLUMN IF EXISTS jwk;
@@ -0,0 +1,76 @@
+-- nextval hands out change_seq when the statement runs, not when it commits, so a slow transaction could commit a lower
+-- change_seq after a client already read a higher one and moved its token past it. Every write of an appuser's notes now
+-- takes a per appuser lock that is held until commit before it numbers the row, so the change_seq of one appuser
+-- becomes visible in order.
+CREATE OR REPLACE FUNCTION note_change_seq_next() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtextextended(new.appuser_id::text, 0));
+    new.change_seq := nextval('note_change_seq');
+    RETURN new;
+END
+$$;
+
+CREATE OR REPLACE TRIGGER note_change_seq_next
+    BEFORE INSERT OR UPDATE
+    ON note
+    FOR EACH ROW
+EXECUTE FUNCTION note_change_seq_next();
+
+CREATE OR REPLACE TRIGGER note_tombstone_change_seq_next
+    BEFORE INSERT
+    ON note_tombstone
+    FOR EACH ROW
+EXECUTE FUNCTION note_change_seq_next();
+
+-- The triggers number every row, a column default would only burn a value of the sequence before them
+ALTER TABLE note ALTER COLUMN change_seq DROP DEFAULT;
+ALTER TABLE note_tombstone ALTER COLUMN change_seq DROP DEFAULT;
+ALTER TABLE IF EXISTS note_partitioned ALTER COLUMN change_seq DROP DEFAULT;
+
+-- Installs that have not swapped in note_partitioned yet number the rows on the unpartitioned note and the mirror copies
+-- the number over, the swap moves the trigger to the partitioned table
+CREATE OR REPLACE PROCEDURE note_partition_swap()
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    LOCK TABLE note IN ACCESS EXCLUSIVE MODE;
+
+    IF EXISTS (SELECT 1 FROM note) AND NOT (SELECT done FROM note_partition_backfill_state) THEN
+        RAISE EXCEPTION 'note has not been copied to note_partitioned yet, CALL note_partition_backfill() first';
+    END IF;
+
+    DROP TRIGGER note_partition_mirror ON note;
+    DROP FUNCTION note_partition_mirror();
+
+    ALTER TABLE note RENAME TO note_unpartitioned;
+    ALTER INDEX note_pkey RENAME TO note_unpartitioned_pkey;
+    ALTER INDEX ix_note_appuser_id_id RENAME TO ix_note_unpartitioned_appuser_id_id;
+    ALTER INDEX ix_note_search_vector RENAME TO ix_note_unpartitioned_search_vector;
+    ALTER INDEX ix_note_appuser_id_change_seq RENAME TO ix_note_unpartitioned_appuser_id_change_seq;
+
+    ALTER TABLE note_partitioned RENAME TO note;
+    ALTER INDEX note_partitioned_pkey RENAME TO note_pkey;
+    ALTER INDEX ix_note_partitioned_search_vector RENAME TO ix_note_search_vector;
+    ALTER INDEX ix_note_partitioned_appuser_id_change_seq RENAME TO ix_note_appuser_id_change_seq;
+
+    CREATE OR REPLACE TRIGGER note_change_seq_next
+        BEFORE INSERT OR UPDATE
+        ON note
+        FOR EACH ROW
+    EXECUTE FUNCTION note_change_seq_next();
+END
+$$;
+
+-- Tombstones are kept for notes.changes.tombstone-retention-in-days. The highest change_seq purged per appuser is kept
+-- so a client whose token is older than that is told to sync from scratch instead of missing deletes.
+ALTER TABLE note_tombstone ADD COLUMN IF NOT EXISTS created_at timestamptz NOT NULL DEFAULT now();
+
+CREATE INDEX IF NOT EXISTS ix_note_tombstone_created_at ON note_tombstone (created_at);
+
+CREATE TABLE IF NOT EXISTS note_tombstone_horizon
+(
+    appuser_id uuid PRIMARY KEY,
+    change_seq bigint NOT NULL
+);
@@ -0,0 +1,18 @@
+-- note_partitioned is hash partitioned by appuser_id, PostgreSQL requires the partition key in every unique constraint,
+-- so its primary key is (appuser_id, id) and nothing in the database keeps id unique on its own. The application still
+-- uses id alone as the identity of a note (the @Id of Note, the note cache, the note urls). That only holds because
+-- every id is a UUIDv7 generated by the application (UuidV7Generator), never taken from a client: 74 random and counter
+-- bits within one millisecond make a collision between two appusers practically impossible. Any new way of creating
+-- notes has to keep generating the id on the server.
+DO
+$$
+    DECLARE
+        id_comment CONSTANT text := 'Generated UUIDv7, unique across all appusers although the primary key is (appuser_id, id)';
+    BEGIN
+        IF to_regclass('note_partitioned') IS NOT NULL THEN
+            EXECUTE format('COMMENT ON COLUMN note_partitioned.id IS %L', id_comment);
+        ELSIF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'note'::regclass) THEN
+            EXECUTE format('COMMENT ON COLUMN note.id IS %L', id_comment);
+        END IF;
+    END
+$$;
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS ix_note_appuser_id_id ON note (appuser_id, id);
@@ -0,0 +1,6 @@
+ALTER TABLE note
+    ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', title), 'A') || setweight(to_tsvector('english', content), 'B')
+        ) STORED;
+
+CREATE INDEX IF NOT EXISTS ix_note_search_vector ON note USING gin (search_vector);
@@ -0,0 +1,3 @@
+ALTER TABLE note
+    ADD COLUMN IF NOT EXISTS snippet        text GENERATED ALWAYS AS (left(content, 200)) STORED,
+    ADD COLUMN IF NOT EXISTS content_length integer GENERATED ALWAYS AS (char_length(content)) STORED;
@@ -0,0 +1,15 @@
+CREATE SEQUENCE IF NOT EXISTS note_change_seq;
+
+ALTER TABLE note
+    ADD COLUMN IF NOT EXISTS change_seq bigint NOT NULL DEFAULT nextval('note_change_seq');
+
+CREATE INDEX IF NOT EXISTS ix_note_appuser_id_change_seq ON note (appuser_id, change_seq);
+
+CREATE TABLE IF NOT EXISTS note_tombstone
+(
+    id         uuid PRIMARY KEY,
+    appuser_id uuid   NOT NULL,
+    change_seq bigint NOT NULL DEFAULT nextval('note_change_seq')
+);
+
+CREATE INDEX IF NOT EXISTS ix_note_tombstone_appuser_id_change_seq ON note_tombstone (appuser_id, change_seq);
@@ -0,0 +1,147 @@
+-- Creates note_partitioned, hash partitioned by appuser_id, next to the existing note table. Writes to note are
+-- mirrored by a trigger, existing rows are copied with note_partition_backfill() and note_partition_swap() puts the
+-- partitioned table in place. On an empty note table (new installs) the swap happens right away.
+
+CREATE TABLE IF NOT EXISTS note_partitioned
+(
+    id             uuid   NOT NULL,
+    appuser_id     uuid   NOT NULL,
+    title          text   NOT NULL,
+    content        text   NOT NULL,
+    search_vector  tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', title), 'A') || setweight(to_tsvector('english', content), 'B')
+        ) STORED,
+    snippet        text GENERATED ALWAYS AS (left(content, 200)) STORED,
+    content_length integer GENERATED ALWAYS AS (char_length(content)) STORED,
+    change_seq     bigint NOT NULL DEFAULT nextval('note_change_seq'),
+    version        bigint NOT NULL DEFAULT 0,
+    CONSTRAINT note_partitioned_pkey PRIMARY KEY (appuser_id, id)
+) PARTITION BY HASH (appuser_id);
+
+DO
+$$
+    BEGIN
+        FOR remainder IN 0..${note-partition-count} - 1
+            LOOP
+                EXECUTE format(
+                        'CREATE TABLE IF NOT EXISTS note_p%s PARTITION OF note_partitioned FOR VALUES WITH (MODULUS %s, REMAINDER %s)',
+                        remainder, ${note-partition-count}, remainder
+                        );
+            END LOOP;
+    END
+$$;
+
+CREATE INDEX IF NOT EXISTS ix_note_partitioned_search_vector ON note_partitioned USING gin (search_vector);
+CREATE INDEX IF NOT EXISTS ix_note_partitioned_appuser_id_change_seq ON note_partitioned (appuser_id, change_seq);
+
+CREATE OR REPLACE FUNCTION note_partition_mirror() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF tg_op IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM note_partitioned WHERE appuser_id = old.appuser_id AND id = old.id;
+    END IF;
+
+    -- Notes without an appuser can not be reached by the application and have no partition to go to
+    IF tg_op IN ('INSERT', 'UPDATE') AND new.appuser_id IS NOT NULL THEN
+        INSERT INTO note_partitioned (id, appuser_id, title, content, change_seq, version)
+        VALUES (new.id, new.appuser_id, new.title, new.content, new.change_seq, new.version)
+        ON CONFLICT (appuser_id, id) DO UPDATE SET title      = excluded.title,
+                                                   content    = excluded.content,
+                                                   change_seq = excluded.change_seq,
+                                                   version    = excluded.version;
+    END IF;
+
+    RETURN NULL;
+END
+$$;
+
+CREATE OR REPLACE TRIGGER note_partition_mirror
+    AFTER INSERT OR UPDATE OR DELETE
+    ON note
+    FOR EACH ROW
+EXECUTE FUNCTION note_partition_mirror();
+
+CREATE TABLE IF NOT EXISTS note_partition_backfill_state
+(
+    id      integer PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    last_id uuid,
+    done    boolean NOT NULL DEFAULT false
+);
+
+INSERT INTO note_partition_backfill_state (id) VALUES (1) ON CONFLICT DO NOTHING;
+
+-- Copies note in id order, one committed batch at a time, and can be stopped and called again at any time. Rows of a
+-- batch are locked FOR SHARE so a concurrent update or delete waits for the batch to commit and its mirrored change
+-- is applied on top of the copied row. Must be called outside of a transaction block: CALL note_partition_backfill();
+CREATE OR REPLACE PROCEDURE note_partition_backfill(batch_size integer DEFAULT 10000)
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    after_id   uuid;
+    batch_last uuid;
+BEGIN
+    LOOP
+        SELECT last_id INTO after_id FROM note_partition_backfill_state;
+
+        WITH batch AS (SELECT id, appuser_id, title, content, change_seq, version
+                       FROM note
+                       WHERE after_id IS NULL
+                          OR id > after_id
+                       ORDER BY id
+                       LIMIT batch_size FOR SHARE),
+             copied AS (INSERT INTO note_partitioned (id, appuser_id, title, content, change_seq, version)
+                 SELECT id, appuser_id, title, content, change_seq, version
+                 FROM batch
+                 WHERE appuser_id IS NOT NULL
+                 ON CONFLICT (appuser_id, id) DO NOTHING)
+        SELECT id INTO batch_last FROM batch ORDER BY id DESC LIMIT 1;
+
+        EXIT WHEN batch_last IS NULL;
+
+        UPDATE note_partition_backfill_state SET last_id = batch_last;
+        COMMIT;
+    END LOOP;
+
+    UPDATE note_partition_backfill_state SET done = true;
+    COMMIT;
+END
+$$;
+
+-- Takes a short exclusive lock on note, stops the mirroring and renames the partitioned table to note. The previous
+-- table is kept as note_unpartitioned until it is dropped by hand.
+CREATE OR REPLACE PROCEDURE note_partition_swap()
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    LOCK TABLE note IN ACCESS EXCLUSIVE MODE;
+
+    IF EXISTS (SELECT 1 FROM note) AND NOT (SELECT done FROM note_partition_backfill_state) THEN
+        RAISE EXCEPTION 'note has not been copied to note_partitioned yet, CALL note_partition_backfill() first';
+    END IF;
+
+    DROP TRIGGER note_partition_mirror ON note;
+    DROP FUNCTION note_partition_mirror();
+
+    ALTER TABLE note RENAME TO note_unpartitioned;
+    ALTER INDEX note_pkey RENAME TO note_unpartitioned_pkey;
+    ALTER INDEX ix_note_appuser_id_id RENAME TO ix_note_unpartitioned_appuser_id_id;
+    ALTER INDEX ix_note_search_vector RENAME TO ix_note_unpartitioned_search_vector;
+    ALTER INDEX ix_note_appuser_id_change_seq RENAME TO ix_note_unpartitioned_appuser_id_change_seq;
+
+    ALTER TABLE note_partitioned RENAME TO note;
+    ALTER INDEX note_partitioned_pkey RENAME TO note_pkey;
+    ALTER INDEX ix_note_partitioned_search_vector RENAME TO ix_note_search_vector;
+    ALTER INDEX ix_note_partitioned_appuser_id_change_seq RENAME TO ix_note_appuser_id_change_seq;
+END
+$$;
+
+DO
+$$
+    BEGIN
+        IF NOT EXISTS (SELECT 1 FROM note) THEN
+            CALL note_partition_swap();
+            DROP TABLE note_unpartitioned;
+        END IF;
+    END
+$$;
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS jwt_key
+(
+    kid        text PRIMARY KEY,
+    algorithm  text        NOT NULL,
+    jwk        text        NOT NULL,
+    created_at timestamptz NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS ix_jwt_key_algorithm_created_at ON jwt_key (algorithm, created_at);
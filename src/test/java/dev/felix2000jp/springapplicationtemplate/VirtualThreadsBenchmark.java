@@ -0,0 +1,112 @@
+package dev.felix2000jp.springapplicationtemplate;
+
+import dev.felix2000jp.springapplicationtemplate.auth.application.SecurityService;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityScope;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.Note;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class VirtualThreadsBenchmark {
+
+    private static final int CONCURRENT_CLIENTS = 5000;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+
+    private ExecutorService clientExecutor;
+    private HttpClient httpClient;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres");
+        postgres.start();
+
+        context = new SpringApplicationBuilder(SpringApplicationTemplateApplication.class)
+                .profiles(threads.equals("virtual") ? new String[]{"virtual-threads"} : new String[]{})
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.flyway.user=" + postgres.getUsername(),
+                        "spring.flyway.password=" + postgres.getPassword(),
+                        "spring.docker.compose.enabled=false",
+                        "server.port=0",
+                        "server.tomcat.max-connections=" + 2 * CONCURRENT_CLIENTS,
+                        "server.tomcat.accept-count=" + CONCURRENT_CLIENTS
+                )
+                .run();
+
+        var appuserId = UUID.randomUUID();
+        var notes = IntStream
+                .range(0, 50)
+                .mapToObj(i -> new Note(appuserId, "title " + i, "content " + i))
+                .toList();
+        context.getBean(NoteRepository.class).saveAll(notes);
+
+        var token = context.getBean(SecurityService.class).generateToken(
+                "username",
+                appuserId.toString(),
+                SecurityScope.APPLICATION.name()
+        );
+        var port = context.getEnvironment().getProperty("local.server.port");
+
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        httpClient = HttpClient.newBuilder().executor(clientExecutor).build();
+        request = HttpRequest
+                .newBuilder(URI.create("http://localhost:" + port + "/api/notes?page=0"))
+                .header("Authorization", "Bearer " + token)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        httpClient.close();
+        clientExecutor.close();
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENT_CLIENTS)
+    public int getNotesWithConcurrentClients() throws Exception {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var responses = IntStream
+                    .range(0, CONCURRENT_CLIENTS)
+                    .mapToObj(i -> executor.submit(() -> httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()))
+                    .toList();
+
+            var succeeded = 0;
+            for (Future<Integer> response : responses) {
+                if (response.get() == 200) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        }
+    }
+
+}
@@ -1,13 +1,20 @@
 package dev.felix2000jp.springapplicationtemplate.auth.application;
 
+import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.AppuserImportRejectionDto;
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.CreateAppuserDto;
+import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.ImportAppuserDto;
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.UpdateAppuserDto;
 import dev.felix2000jp.springapplicationtemplate.auth.application.events.AppuserDeletedEvent;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.Appuser;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.AppuserRepository;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.AppuserAlreadyExistsException;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.AppuserNotFoundException;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.PasswordHashingRejectedException;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityScope;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityUser;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -17,9 +24,15 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -34,36 +47,185 @@ class AppuserServiceTest {
     private AppuserPublisher appuserPublisher;
     @Mock
     private SecurityService securityService;
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
     @InjectMocks
     private AppuserService appuserService;
 
     @Captor
     private ArgumentCaptor<Appuser> appuserCaptor;
+    @Captor
+    private ArgumentCaptor<List<Appuser>> appuserListCaptor;
 
     @Test
     void register_given_dto_then_create_user() {
         var createAppuserDto = new CreateAppuserDto("username", "password");
 
-        when(appuserRepository.existsByUsername(createAppuserDto.username())).thenReturn(false);
-        when(securityService.generateEncodedPassword(createAppuserDto.password())).thenReturn("encoded-password");
+        when(securityService.generateEncodedPasswordAsync(createAppuserDto.password()))
+                .thenReturn(CompletableFuture.completedFuture("encoded-password"));
+        when(appuserRepository.saveIfUsernameIsAvailable(any())).thenReturn(Optional.of(UUID.randomUUID()));
 
         appuserService.register(createAppuserDto);
 
-        verify(appuserRepository).save(appuserCaptor.capture());
+        verify(appuserRepository).saveIfUsernameIsAvailable(appuserCaptor.capture());
 
         assertThat(appuserCaptor.getValue().getUsername()).isEqualTo(createAppuserDto.username());
         assertThat(appuserCaptor.getValue().getPassword()).isEqualTo("encoded-password");
+        assertThat(appuserCaptor.getValue().getAuthoritiesScopes()).containsExactly("APPLICATION");
     }
 
     @Test
     void register_already_exists_exception() {
         var createAppuserDto = new CreateAppuserDto("username", "password");
 
-        when(appuserRepository.existsByUsername(createAppuserDto.username())).thenReturn(true);
+        when(securityService.generateEncodedPasswordAsync(createAppuserDto.password()))
+                .thenReturn(CompletableFuture.completedFuture("encoded-password"));
+        when(appuserRepository.saveIfUsernameIsAvailable(any())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> appuserService.register(createAppuserDto)).isInstanceOf(AppuserAlreadyExistsException.class);
     }
 
+    @Test
+    void register_given_invalid_username_then_throw_exception_without_saving() {
+        var createAppuserDto = new CreateAppuserDto("user", "password");
+        var encodedPassword = new CompletableFuture<String>();
+
+        when(securityService.generateEncodedPasswordAsync(createAppuserDto.password())).thenReturn(encodedPassword);
+
+        assertThatThrownBy(() -> appuserService.register(createAppuserDto)).isInstanceOf(ConstraintViolationException.class);
+        assertThat(encodedPassword).isCancelled();
+        verify(appuserRepository, never()).saveIfUsernameIsAvailable(any());
+    }
+
+    @Test
+    void importAppusers_given_valid_and_invalid_lines_then_import_valid_and_report_rejections() {
+        var importAppuserDtos = Stream.of(
+                new ImportAppuserDto("username", "password", null),
+                null,
+                new ImportAppuserDto("user", "password", null),
+                new ImportAppuserDto("admin username", "password", Set.of(SecurityScope.ADMIN, SecurityScope.APPLICATION))
+        );
+
+        when(securityService.generateEncodedPasswordAsync("password"))
+                .thenReturn(CompletableFuture.completedFuture("encoded-password"));
+        when(appuserRepository.saveAllIfUsernamesAreAvailable(any()))
+                .thenReturn(Set.of("username", "admin username"));
+
+        var actual = appuserService.importAppusers(importAppuserDtos);
+
+        verify(appuserRepository).saveAllIfUsernamesAreAvailable(appuserListCaptor.capture());
+
+        assertThat(actual.imported()).isEqualTo(2);
+        assertThat(actual.rejected()).isEqualTo(2);
+        assertThat(actual.rejections()).containsExactly(
+                new AppuserImportRejectionDto(2, "Line is not a valid appuser"),
+                new AppuserImportRejectionDto(3, "username size must be between 5 and 500")
+        );
+        assertThat(appuserListCaptor.getValue())
+                .extracting(Appuser::getUsername, Appuser::getPassword, Appuser::getAuthoritiesScopes)
+                .containsExactly(
+                        tuple("username", "encoded-password", Set.of("APPLICATION")),
+                        tuple("admin username", "encoded-password", Set.of("ADMIN", "APPLICATION"))
+                );
+    }
+
+    @Test
+    void importAppusers_given_taken_and_repeated_usernames_then_reject_them() {
+        var importAppuserDtos = Stream.of(
+                new ImportAppuserDto("username", "password", null),
+                new ImportAppuserDto("taken username", "password", null),
+                new ImportAppuserDto("username", "password", null)
+        );
+
+        when(securityService.generateEncodedPasswordAsync("password"))
+                .thenReturn(CompletableFuture.completedFuture("encoded-password"));
+        when(appuserRepository.saveAllIfUsernamesAreAvailable(any())).thenReturn(Set.of("username"));
+
+        var actual = appuserService.importAppusers(importAppuserDtos);
+
+        assertThat(actual.imported()).isEqualTo(1);
+        assertThat(actual.rejections()).containsExactly(
+                new AppuserImportRejectionDto(2, "Username already exists"),
+                new AppuserImportRejectionDto(3, "Username already exists")
+        );
+    }
+
+    @Test
+    void importAppusers_given_failed_hash_then_reject_line_and_continue() {
+        var importAppuserDtos = Stream.of(
+                new ImportAppuserDto("username", "password", null),
+                new ImportAppuserDto("other username", "other password", null)
+        );
+
+        when(securityService.generateEncodedPasswordAsync("password"))
+                .thenThrow(new IllegalStateException("Hashing pool is shut down"));
+        when(securityService.generateEncodedPasswordAsync("other password"))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Hashing failed")));
+
+        var actual = appuserService.importAppusers(importAppuserDtos);
+
+        assertThat(actual.imported()).isZero();
+        assertThat(actual.rejections()).containsExactly(
+                new AppuserImportRejectionDto(1, "Hashing pool is shut down"),
+                new AppuserImportRejectionDto(2, "Hashing failed")
+        );
+        verify(appuserRepository, never()).saveAllIfUsernamesAreAvailable(any());
+    }
+
+    @Test
+    void importAppusers_given_full_hashing_queue_then_retry_instead_of_rejecting_line() {
+        var importAppuserDtos = Stream.of(new ImportAppuserDto("username", "password", null));
+
+        when(securityService.generateEncodedPasswordAsync("password"))
+                .thenThrow(new PasswordHashingRejectedException())
+                .thenThrow(new PasswordHashingRejectedException())
+                .thenReturn(CompletableFuture.completedFuture("encoded-password"));
+        when(appuserRepository.saveAllIfUsernamesAreAvailable(any())).thenReturn(Set.of("username"));
+
+        var actual = appuserService.importAppusers(importAppuserDtos);
+
+        assertThat(actual.imported()).isEqualTo(1);
+        assertThat(actual.rejections()).isEmpty();
+        verify(securityService, times(3)).generateEncodedPasswordAsync("password");
+    }
+
+    @Test
+    void importAppusers_given_full_hashing_queue_with_pending_hashes_then_complete_them_and_retry() {
+        var importAppuserDtos = Stream.of(
+                new ImportAppuserDto("username", "password", null),
+                new ImportAppuserDto("other username", "other password", null)
+        );
+
+        when(securityService.generateEncodedPasswordAsync("password"))
+                .thenReturn(CompletableFuture.completedFuture("encoded-password"));
+        when(securityService.generateEncodedPasswordAsync("other password"))
+                .thenThrow(new PasswordHashingRejectedException())
+                .thenReturn(CompletableFuture.completedFuture("other-encoded-password"));
+        when(appuserRepository.saveAllIfUsernamesAreAvailable(any())).thenReturn(Set.of("username", "other username"));
+
+        var actual = appuserService.importAppusers(importAppuserDtos);
+
+        verify(appuserRepository).saveAllIfUsernamesAreAvailable(appuserListCaptor.capture());
+
+        assertThat(actual.imported()).isEqualTo(2);
+        assertThat(actual.rejections()).isEmpty();
+        assertThat(appuserListCaptor.getValue())
+                .extracting(Appuser::getPassword)
+                .containsExactly("encoded-password", "other-encoded-password");
+    }
+
+    @Test
+    void updatePassword_given_rehashed_password_then_save_it() {
+        var appuser = new Appuser("username", "old-hash");
+
+        when(appuserRepository.findByUsername("username")).thenReturn(Optional.of(appuser));
+
+        var actual = appuserService.updatePassword(appuser, "new-hash");
+
+        verify(appuserRepository).save(appuser);
+        assertThat(actual.getPassword()).isEqualTo("new-hash");
+    }
+
     @Test
     void getAppusers_given_page_with_data_then_return_list_of_appusers() {
         var appuser = new Appuser("username", "password");
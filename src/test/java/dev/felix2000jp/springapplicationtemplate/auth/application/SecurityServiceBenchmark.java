@@ -0,0 +1,88 @@
+package dev.felix2000jp.springapplicationtemplate.auth.application;
+
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityScope;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityUser;
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.SecurityUserJwtAuthenticationConverter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// NoteService reads the current appuser id once per call, a request that touches several notes reads it many times
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SecurityServiceBenchmark {
+
+    @Param({"1", "10"})
+    private int callsPerRequest;
+
+    private Jwt jwt;
+    private JwtAuthenticationConverter defaultConverter;
+    private SecurityUserJwtAuthenticationConverter converter;
+    private SecurityService securityService;
+
+    @Setup
+    public void setUp() {
+        var now = Instant.now();
+        jwt = Jwt
+                .withTokenValue("token")
+                .header("alg", "EdDSA")
+                .subject("username")
+                .claim("id", UUID.randomUUID().toString())
+                .claim("scope", "ADMIN APPLICATION")
+                .issuedAt(now)
+                .expiresAt(now.plus(12, ChronoUnit.HOURS))
+                .build();
+        defaultConverter = new JwtAuthenticationConverter();
+        converter = new SecurityUserJwtAuthenticationConverter();
+        securityService = new SecurityService(null, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void parseClaimsOnEveryCall(Blackhole blackhole) {
+        SecurityContextHolder.getContext().setAuthentication(defaultConverter.convert(jwt));
+
+        for (var i = 0; i < callsPerRequest; i++) {
+            var principal = (Jwt) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            blackhole.consume(parseClaims(principal).id());
+        }
+    }
+
+    @Benchmark
+    public void convertOnceAtAuthentication(Blackhole blackhole) {
+        SecurityContextHolder.getContext().setAuthentication(converter.convert(jwt));
+
+        for (var i = 0; i < callsPerRequest; i++) {
+            blackhole.consume(securityService.getUser().id());
+        }
+    }
+
+    // How SecurityService.getUser() read a Jwt principal before the converter built the user up front
+    private static SecurityUser parseClaims(Jwt jwt) {
+        var id = UUID.fromString(jwt.getClaimAsString("id"));
+        var scopes = Arrays
+                .stream(jwt.getClaimAsString("scope").split(" "))
+                .map(SecurityScope::valueOf)
+                .collect(Collectors.toSet());
+
+        return new SecurityUser(id, jwt.getSubject(), scopes);
+    }
+
+}
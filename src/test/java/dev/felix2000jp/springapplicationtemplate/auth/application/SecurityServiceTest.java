@@ -0,0 +1,76 @@
+package dev.felix2000jp.springapplicationtemplate.auth.application;
+
+import dev.felix2000jp.springapplicationtemplate.auth.domain.Appuser;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityScope;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MockitoExtension.class)
+class SecurityServiceTest {
+
+    @Mock
+    private JwtEncoder jwtEncoder;
+    @Mock
+    private AsyncPasswordEncoder passwordEncoder;
+    @InjectMocks
+    private SecurityService securityService;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getUser_given_security_user_principal_then_return_it() {
+        var securityUser = new SecurityUser(UUID.randomUUID(), "username", Set.of(SecurityScope.APPLICATION));
+        authenticate(UsernamePasswordAuthenticationToken.authenticated(securityUser, null, Set.of()));
+
+        var actual = securityService.getUser();
+
+        assertThat(actual).isSameAs(securityUser);
+    }
+
+    @Test
+    void getUser_given_appuser_principal_then_convert_it() {
+        var appuser = new Appuser("username", "password");
+        appuser.addScopeApplication();
+        ReflectionTestUtils.setField(appuser, "id", UUID.randomUUID());
+        authenticate(UsernamePasswordAuthenticationToken.authenticated(appuser, null, appuser.getAuthorities()));
+
+        var actual = securityService.getUser();
+
+        assertThat(actual).isEqualTo(new SecurityUser(appuser.getId(), "username", Set.of(SecurityScope.APPLICATION)));
+    }
+
+    @Test
+    void getUser_given_unknown_principal_then_throw_exception() {
+        authenticate(new TestingAuthenticationToken("username", null));
+
+        assertThatThrownBy(() -> securityService.getUser()).isInstanceOf(AccessDeniedException.class);
+    }
+
+    private static void authenticate(Authentication authentication) {
+        var context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+    }
+
+}
@@ -53,4 +53,19 @@ class AppuserTest {
         assertThat(appuser.getAuthoritiesScopes()).containsExactly(SecurityScope.APPLICATION.name());
     }
 
+    @Test
+    void toSecurityUser_given_appuser_with_scopes_then_return_security_user() {
+        var appuser = new Appuser("username", "password");
+        appuser.addScopeAdmin();
+        appuser.addScopeApplication();
+
+        var actual = appuser.toSecurityUser();
+
+        assertThat(actual.username()).isEqualTo("username");
+        assertThat(actual.scopes()).containsExactlyInAnyOrder(SecurityScope.ADMIN, SecurityScope.APPLICATION);
+        assertThat(appuser.getAuthorities())
+                .extracting(AppuserAuthority::getAuthority)
+                .containsExactlyInAnyOrder("SCOPE_ADMIN", "SCOPE_APPLICATION");
+    }
+
 }
@@ -0,0 +1,22 @@
+package dev.felix2000jp.springapplicationtemplate.auth.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecurityScopeTest {
+
+    @Test
+    void toBit_given_scopes_then_return_stored_bits() {
+        assertThat(SecurityScope.ADMIN.toBit()).isEqualTo(1);
+        assertThat(SecurityScope.APPLICATION.toBit()).isEqualTo(2);
+    }
+
+    @Test
+    void fromBits_given_bits_then_return_scopes() {
+        assertThat(SecurityScope.fromBits(0)).isEmpty();
+        assertThat(SecurityScope.fromBits(2)).containsExactly(SecurityScope.APPLICATION);
+        assertThat(SecurityScope.fromBits(3)).containsExactly(SecurityScope.ADMIN, SecurityScope.APPLICATION);
+    }
+
+}
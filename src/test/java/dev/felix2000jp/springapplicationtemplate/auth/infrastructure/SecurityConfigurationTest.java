@@ -0,0 +1,64 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure;
+
+import dev.felix2000jp.springapplicationtemplate.auth.application.AppuserService;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.Appuser;
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.BasicCredentialsCache;
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.JwtKeyRing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(useDefaultFilters = false)
+@Import({SecurityConfiguration.class, BasicCredentialsCache.class, SimpleMeterRegistry.class})
+class SecurityConfigurationTest {
+
+    @MockitoBean
+    private AppuserService appuserService;
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+    @MockitoBean
+    private JwtKeyRing jwtKeyRing;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void apiAuthFilterChain_given_wrong_basic_password_then_return_401_after_checking_it_once() throws Exception {
+        var appuser = new Appuser("username", "encoded-password");
+        appuser.addScopeApplication();
+
+        when(appuserService.loadUserByUsername("username")).thenReturn(appuser);
+        when(passwordEncoder.matches(any(), anyString())).thenReturn(false);
+
+        mockMvc
+                .perform(get("/api/appusers").with(httpBasic("username", "wrong-password")))
+                .andExpect(status().isUnauthorized());
+
+        verify(appuserService, times(1)).loadUserByUsername("username");
+        verify(passwordEncoder, times(1)).matches("wrong-password", "encoded-password");
+    }
+
+    @Test
+    void apiAuthFilterChain_given_invalid_bearer_token_then_return_401_from_the_jwt_provider() throws Exception {
+        mockMvc
+                .perform(get("/api/appusers").header("Authorization", "Bearer not-a-jwt"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("WWW-Authenticate", containsString("invalid_token")));
+    }
+
+}
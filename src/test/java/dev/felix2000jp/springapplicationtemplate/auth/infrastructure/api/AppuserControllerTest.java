@@ -2,8 +2,11 @@ package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.api;
 
 import dev.felix2000jp.springapplicationtemplate.auth.application.AppuserService;
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.AppuserDto;
+import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.AppuserImportDto;
+import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.AppuserImportRejectionDto;
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.AppuserListDto;
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.CreateAppuserDto;
+import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.ImportAppuserDto;
 import dev.felix2000jp.springapplicationtemplate.auth.application.dtos.UpdateAppuserDto;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.AppuserAlreadyExistsException;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.AppuserNotFoundException;
@@ -25,7 +28,9 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -126,6 +131,39 @@ class AppuserControllerTest {
                 .andExpect(content().json(expectedResponse));
     }
 
+    @Test
+    @WithMockUser
+    @SuppressWarnings("unchecked")
+    void importAppusers_given_ndjson_body_then_return_200_and_import_report() throws Exception {
+        var requestBody = """
+                { "username": "username", "password": "password", "scopes": ["ADMIN"] }
+                { "username": "username", "password": "password", "scopes": ["UNKNOWN"] }
+                """;
+        var appuserImportDto = new AppuserImportDto(1, 1, 100, List.of(new AppuserImportRejectionDto(2, "Line is not a valid appuser")));
+        var expectedResponse = """
+                {
+                    "imported": 1,
+                    "rejected": 1,
+                    "rowsPerSecond": 100,
+                    "rejections": [{ "line": 2, "reason": "Line is not a valid appuser" }]
+                }
+                """;
+
+        when(appuserService.importAppusers(any())).thenAnswer(invocation -> {
+            Stream<ImportAppuserDto> importAppuserDtos = invocation.getArgument(0, Stream.class);
+            assertThat(importAppuserDtos.toList()).containsExactly(
+                    new ImportAppuserDto("username", "password", Set.of(SecurityScope.ADMIN)),
+                    null
+            );
+            return appuserImportDto;
+        });
+
+        mockMvc
+                .perform(post("/api/appusers/admin/bulk").with(csrf()).contentType(MediaType.APPLICATION_NDJSON).content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(content().json(expectedResponse));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"-1", "not a number"})
     @WithMockUser
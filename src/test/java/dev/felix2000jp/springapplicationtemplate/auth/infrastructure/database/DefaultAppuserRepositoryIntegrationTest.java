@@ -1,6 +1,9 @@
 package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.database;
 
 import dev.felix2000jp.springapplicationtemplate.auth.domain.Appuser;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityScope;
+import dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security.BasicCredentialsCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +19,7 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -24,7 +28,7 @@ import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 @DataJpaTest
 @Testcontainers
-@Import(DefaultAppuserRepository.class)
+@Import({DefaultAppuserRepository.class, BasicCredentialsCache.class, SimpleMeterRegistry.class})
 class DefaultAppuserRepositoryIntegrationTest {
 
     @Container
@@ -157,6 +161,67 @@ class DefaultAppuserRepositoryIntegrationTest {
         assertThat(createdAppuser).isNotNull();
     }
 
+    @Test
+    void saveIfUsernameIsAvailable_given_new_username_then_insert_appuser() {
+        var appuserToCreate = new Appuser("new username", "new password");
+        appuserToCreate.addScopeApplication();
+
+        var actual = appuserRepository.saveIfUsernameIsAvailable(appuserToCreate);
+
+        assertThat(actual).isPresent();
+        var createdAppuser = testEntityManager.find(Appuser.class, actual.get());
+        assertThat(createdAppuser.getUsername()).isEqualTo("new username");
+        assertThat(createdAppuser.getAuthoritiesScopes()).containsExactly(SecurityScope.APPLICATION.name());
+    }
+
+    @Test
+    void saveIfUsernameIsAvailable_given_taken_username_then_return_empty_optional() {
+        var appuserToCreate = new Appuser(appuser.getUsername(), "new password");
+
+        var actual = appuserRepository.saveIfUsernameIsAvailable(appuserToCreate);
+
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void saveAllIfUsernamesAreAvailable_given_new_and_taken_usernames_then_return_saved_usernames() {
+        var newAppuser = new Appuser("new username", "new password");
+        newAppuser.addScopeAdmin();
+        var takenAppuser = new Appuser(appuser.getUsername(), "new password");
+        var repeatedAppuser = new Appuser("new username", "other password");
+
+        var actual = appuserRepository.saveAllIfUsernamesAreAvailable(List.of(newAppuser, takenAppuser, repeatedAppuser));
+
+        assertThat(actual).containsExactly("new username");
+        var createdAppuser = appuserRepository.findByUsername("new username");
+        assertThat(createdAppuser).hasValueSatisfying(created -> {
+            assertThat(created.getPassword()).isEqualTo("new password");
+            assertThat(created.getAuthoritiesScopes()).containsExactly(SecurityScope.ADMIN.name());
+        });
+    }
+
+    @Test
+    void saveAllIfUsernamesAreAvailable_given_empty_list_then_return_empty_set() {
+        var actual = appuserRepository.saveAllIfUsernamesAreAvailable(List.of());
+
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void save_given_appuser_with_scopes_then_save_scopes() {
+        var appuserToCreate = new Appuser("scoped username", "new password");
+        appuserToCreate.addScopeAdmin();
+        appuserToCreate.addScopeApplication();
+
+        appuserRepository.save(appuserToCreate);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        var actual = appuserRepository.findByUsername("scoped username");
+        assertThat(actual).hasValueSatisfying(createdAppuser -> assertThat(createdAppuser.getAuthoritiesScopes())
+                .containsExactlyInAnyOrder(SecurityScope.ADMIN.name(), SecurityScope.APPLICATION.name()));
+    }
+
     @ParameterizedTest
     @MethodSource
     void save_given_invalid_appuser_to_create_then_throw_exception(Appuser appuserToCreate) {
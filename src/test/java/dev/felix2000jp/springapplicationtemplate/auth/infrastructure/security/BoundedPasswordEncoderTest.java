@@ -0,0 +1,87 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import dev.felix2000jp.springapplicationtemplate.auth.domain.exceptions.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder boundedPasswordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        boundedPasswordEncoder = new BoundedPasswordEncoder(meterRegistry, 1, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        boundedPasswordEncoder.destroy();
+    }
+
+    @Test
+    void matches_given_encoded_password_then_return_true() {
+        var encoded = boundedPasswordEncoder.encode("password");
+
+        assertThat(boundedPasswordEncoder.matches("password", encoded)).isTrue();
+        assertThat(boundedPasswordEncoder.matches("wrong", encoded)).isFalse();
+        assertThat(meterRegistry.get("password.hashing.duration").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("password.hashing.queue").tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void encodeAsync_given_saturated_executor_then_throw_exception() throws InterruptedException {
+        var executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(boundedPasswordEncoder, "executor");
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(executor.getMaximumPoolSize());
+
+        for (var i = 0; i < executor.getMaximumPoolSize(); i++) {
+            executor.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+        }
+        started.await();
+        executor.execute(() -> awaitQuietly(release));
+
+        try {
+            assertThatThrownBy(() -> boundedPasswordEncoder.encodeAsync("password"))
+                    .isInstanceOf(PasswordHashingRejectedException.class);
+            assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void upgradeEncoding_given_hash_with_lower_cost_than_current_then_return_true() {
+        var encoded = boundedPasswordEncoder.encode("password");
+
+        assertThat(boundedPasswordEncoder.upgradeEncoding(encoded)).isFalse();
+
+        boundedPasswordEncoder.setCost(5);
+
+        assertThat(boundedPasswordEncoder.upgradeEncoding(encoded)).isTrue();
+        assertThat(boundedPasswordEncoder.matches("password", encoded)).isTrue();
+        assertThat(boundedPasswordEncoder.encode("password")).startsWith("$2a$05$");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import dev.felix2000jp.springapplicationtemplate.auth.domain.Appuser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingAuthenticationProviderTest {
+
+    private AuthenticationProvider delegate;
+    private BasicCredentialsCache basicCredentialsCache;
+    private CachingAuthenticationProvider cachingAuthenticationProvider;
+
+    private Appuser appuser;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(AuthenticationProvider.class);
+        basicCredentialsCache = new BasicCredentialsCache(new SimpleMeterRegistry(), 100, 60);
+        cachingAuthenticationProvider = new CachingAuthenticationProvider(delegate, basicCredentialsCache);
+
+        appuser = new Appuser("username", "encoded-password");
+        appuser.addScopeApplication();
+        ReflectionTestUtils.setField(appuser, "id", UUID.randomUUID());
+
+        when(delegate.authenticate(any())).thenAnswer(invocation -> {
+            var authentication = invocation.getArgument(0, UsernamePasswordAuthenticationToken.class);
+            if (!"password".equals(authentication.getCredentials())) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(appuser, null, appuser.getAuthorities());
+        });
+    }
+
+    @Test
+    void authenticate_given_repeated_valid_credentials_then_verify_them_once() {
+        cachingAuthenticationProvider.authenticate(credentials("username", "password"));
+
+        var actual = cachingAuthenticationProvider.authenticate(credentials("username", "password"));
+
+        assertThat(actual.isAuthenticated()).isTrue();
+        assertThat(actual.getPrincipal()).isEqualTo(appuser.toSecurityUser());
+        assertThat(actual.getName()).isEqualTo("username");
+        assertThat(actual.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("SCOPE_APPLICATION");
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    @Test
+    void authenticate_given_wrong_password_after_valid_credentials_then_verify_and_reject_it() {
+        cachingAuthenticationProvider.authenticate(credentials("username", "password"));
+
+        assertThatThrownBy(() -> cachingAuthenticationProvider.authenticate(credentials("username", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void authenticate_given_repeated_wrong_password_then_verify_it_every_time() {
+        assertThatThrownBy(() -> cachingAuthenticationProvider.authenticate(credentials("username", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> cachingAuthenticationProvider.authenticate(credentials("username", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void authenticate_given_evicted_appuser_then_verify_credentials_again() {
+        cachingAuthenticationProvider.authenticate(credentials("username", "password"));
+        basicCredentialsCache.evictAllByAppuserId(appuser.getId());
+
+        cachingAuthenticationProvider.authenticate(credentials("username", "password"));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void authenticate_given_eviction_during_verification_then_do_not_cache_credentials() {
+        doAnswer(invocation -> {
+            // The password changes while the old hash is being checked
+            basicCredentialsCache.evictAllByAppuserId(appuser.getId());
+            return UsernamePasswordAuthenticationToken.authenticated(appuser, null, appuser.getAuthorities());
+        }).when(delegate).authenticate(any());
+
+        cachingAuthenticationProvider.authenticate(credentials("username", "password"));
+        cachingAuthenticationProvider.authenticate(credentials("username", "password"));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void authenticate_given_cached_credentials_then_return_new_token_with_request_details() {
+        cachingAuthenticationProvider.authenticate(credentials("username", "password"));
+        var request = credentials("username", "password");
+        request.setDetails("second request");
+
+        var first = cachingAuthenticationProvider.authenticate(credentials("username", "password"));
+        var second = cachingAuthenticationProvider.authenticate(request);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getDetails()).isEqualTo("second request");
+    }
+
+    private static UsernamePasswordAuthenticationToken credentials(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+
+}
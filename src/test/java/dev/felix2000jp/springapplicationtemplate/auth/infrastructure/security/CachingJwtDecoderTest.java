@@ -0,0 +1,83 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class CachingJwtDecoderTest {
+
+    private JwtDecoder delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private CachingJwtDecoder cachingJwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(JwtDecoder.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cachingJwtDecoder = new CachingJwtDecoder(delegate, 100, meterRegistry);
+    }
+
+    @Test
+    void decode_given_same_valid_token_then_verify_it_once() {
+        var jwt = jwt("token", Instant.now().plus(1, ChronoUnit.HOURS));
+        when(delegate.decode("token")).thenReturn(jwt);
+
+        cachingJwtDecoder.decode("token");
+        var actual = cachingJwtDecoder.decode("token");
+
+        assertThat(actual).isSameAs(jwt);
+        verify(delegate, times(1)).decode("token");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void decode_given_invalid_token_then_verify_it_every_time() {
+        when(delegate.decode("token")).thenThrow(new BadJwtException("invalid"));
+
+        assertThatThrownBy(() -> cachingJwtDecoder.decode("token")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> cachingJwtDecoder.decode("token")).isInstanceOf(BadJwtException.class);
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    @Test
+    void decode_given_token_without_expiration_then_verify_it_every_time() {
+        when(delegate.decode("token")).thenReturn(jwt("token", null));
+
+        cachingJwtDecoder.decode("token");
+        cachingJwtDecoder.decode("token");
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    @Test
+    void decode_given_token_past_its_expiration_then_verify_it_every_time() {
+        when(delegate.decode("token")).thenReturn(jwt("token", Instant.now().minus(1, ChronoUnit.SECONDS)));
+
+        cachingJwtDecoder.decode("token");
+        cachingJwtDecoder.decode("token");
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt
+                .withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("username")
+                .issuedAt(Instant.now().minus(1, ChronoUnit.MINUTES))
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+}
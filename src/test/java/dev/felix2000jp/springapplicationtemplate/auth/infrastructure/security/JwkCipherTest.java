@@ -0,0 +1,50 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import com.nimbusds.jose.JOSEException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwkCipherTest {
+
+    private static final String ENCRYPTION_KEY = "0uqws+WGR63bZQ7vWRJxLI0MYIRPmGnRsaddcgwm8PI=";
+
+    private final JwkCipher jwkCipher = new JwkCipher(ENCRYPTION_KEY);
+
+    @Test
+    void decrypt_given_encrypted_jwk_then_return_private_jwk() throws JOSEException {
+        var jwk = JwtAlgorithm.EdDSA.generate("kid");
+
+        var actual = jwkCipher.decrypt("kid", jwkCipher.encrypt(jwk));
+
+        assertThat(actual).isEqualTo(jwk);
+        assertThat(actual.isPrivate()).isTrue();
+    }
+
+    @Test
+    void decrypt_given_other_kid_then_throw_exception() throws JOSEException {
+        var encryptedJwk = jwkCipher.encrypt(JwtAlgorithm.EdDSA.generate("kid"));
+
+        assertThatThrownBy(() -> jwkCipher.decrypt("other kid", encryptedJwk)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void decrypt_given_other_encryption_key_then_throw_exception() throws JOSEException {
+        var encryptedJwk = jwkCipher.encrypt(JwtAlgorithm.EdDSA.generate("kid"));
+        var otherJwkCipher = new JwkCipher("jmH0n5Hkq3bq7Qj2yJ6y2m3qgk3O9dQ4qS1n3y3K4mE=");
+
+        assertThatThrownBy(() -> otherJwkCipher.decrypt("kid", encryptedJwk)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void constructor_given_no_key_then_throw_exception() {
+        assertThatThrownBy(() -> new JwkCipher("")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void constructor_given_key_of_invalid_length_then_throw_exception() {
+        assertThatThrownBy(() -> new JwkCipher("c2hvcnQ=")).isInstanceOf(IllegalStateException.class);
+    }
+
+}
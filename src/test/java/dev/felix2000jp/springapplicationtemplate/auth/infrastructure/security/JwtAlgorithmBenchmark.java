@@ -0,0 +1,67 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JwtAlgorithmBenchmark {
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    private JwtAlgorithm algorithm;
+
+    private JWSHeader header;
+    private JWTClaimsSet claims;
+    private JWSSigner signer;
+    private JWSVerifier verifier;
+    private String token;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        var jwk = algorithm.generate("kid");
+        signer = algorithm.signer(jwk);
+        verifier = algorithm.verifier(jwk);
+
+        var now = Instant.now();
+        header = new JWSHeader.Builder(algorithm.jwsAlgorithm()).keyID("kid").type(JOSEObjectType.JWT).build();
+        claims = new JWTClaimsSet.Builder()
+                .issuer("self")
+                .subject("username")
+                .claim("id", UUID.randomUUID().toString())
+                .claim("scope", "APPLICATION")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(12, ChronoUnit.HOURS)))
+                .build();
+        token = sign();
+    }
+
+    @Benchmark
+    public String sign() throws JOSEException {
+        var signedJwt = new SignedJWT(header, claims);
+        signedJwt.sign(signer);
+        return signedJwt.serialize();
+    }
+
+    @Benchmark
+    public boolean verify() throws ParseException, JOSEException {
+        return SignedJWT.parse(token).verify(verifier);
+    }
+
+}
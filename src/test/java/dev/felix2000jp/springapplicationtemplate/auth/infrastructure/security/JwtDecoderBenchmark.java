@@ -0,0 +1,71 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.*;
+
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JwtDecoderBenchmark {
+
+    private JwtDecoder nimbusJwtDecoder;
+    private JwtDecoder cachingJwtDecoder;
+    private String token;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException {
+        var keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        var keyPair = keyPairGenerator.generateKeyPair();
+        var publicKey = (RSAPublicKey) keyPair.getPublic();
+        var privateKey = (RSAPrivateKey) keyPair.getPrivate();
+
+        var jwk = new RSAKey.Builder(publicKey).privateKey(privateKey).build();
+        var jwtEncoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(jwk)));
+
+        var now = Instant.now();
+        var claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .subject("username")
+                .claim("id", UUID.randomUUID().toString())
+                .claim("scope", "APPLICATION")
+                .issuedAt(now)
+                .expiresAt(now.plus(12, ChronoUnit.HOURS))
+                .build();
+        token = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+
+        nimbusJwtDecoder = NimbusJwtDecoder.withPublicKey(publicKey).build();
+        cachingJwtDecoder = new CachingJwtDecoder(
+                NimbusJwtDecoder.withPublicKey(publicKey).build(),
+                10_000,
+                new SimpleMeterRegistry()
+        );
+    }
+
+    @Benchmark
+    public Jwt decodeWithNimbus() {
+        return nimbusJwtDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decodeWithCache() {
+        return cachingJwtDecoder.decode(token);
+    }
+
+}
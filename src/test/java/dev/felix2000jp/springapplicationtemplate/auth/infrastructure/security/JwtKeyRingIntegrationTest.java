@@ -0,0 +1,128 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "jwt.algorithm=EdDSA")
+@Testcontainers
+@Import({JwtKeyRing.class, JwkCipher.class})
+class JwtKeyRingIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private JwtKeyRing jwtKeyRing;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("TRUNCATE TABLE jwt_key");
+    }
+
+    @Test
+    void getSigningKey_given_no_keys_then_create_one() {
+        var actual = jwtKeyRing.getSigningKey();
+
+        assertThat(actual.algorithm()).isEqualTo(JwtAlgorithm.EdDSA);
+        assertThat(jdbcTemplate.queryForList("SELECT kid FROM jwt_key", String.class)).containsExactly(actual.kid());
+    }
+
+    @Test
+    void refresh_given_recent_key_then_do_not_rotate() {
+        var signingKey = jwtKeyRing.getSigningKey();
+
+        jwtKeyRing.refresh();
+
+        assertThat(jwtKeyRing.getSigningKey().kid()).isEqualTo(signingKey.kid());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM jwt_key", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void refresh_given_expired_key_then_rotate_and_keep_verifying_old_key() {
+        var oldSigningKey = jwtKeyRing.getSigningKey();
+        jdbcTemplate.update("UPDATE jwt_key SET created_at = now() - interval '25 hours'");
+
+        jwtKeyRing.refresh();
+
+        var actual = jwtKeyRing.getSigningKey();
+        assertThat(actual.kid()).isNotEqualTo(oldSigningKey.kid());
+        assertThat(jwtKeyRing.getVerifier(oldSigningKey.kid(), JWSAlgorithm.EdDSA)).isPresent();
+        assertThat(jwtKeyRing.getVerifier(actual.kid(), JWSAlgorithm.EdDSA)).isPresent();
+    }
+
+    @Test
+    void rotate_given_retired_key_then_delete_it() {
+        var oldSigningKey = jwtKeyRing.getSigningKey();
+        jdbcTemplate.update("UPDATE jwt_key SET created_at = now() - interval '38 hours'");
+
+        jwtKeyRing.rotate();
+
+        assertThat(jdbcTemplate.queryForList("SELECT kid FROM jwt_key", String.class)).doesNotContain(oldSigningKey.kid());
+        assertThat(jwtKeyRing.getVerifier(oldSigningKey.kid(), JWSAlgorithm.EdDSA)).isEmpty();
+    }
+
+    @Test
+    void getSigningKey_given_new_key_then_store_private_key_encrypted_only() {
+        var signingKey = jwtKeyRing.getSigningKey();
+
+        var actual = jdbcTemplate.queryForMap("SELECT public_jwk, encrypted_jwk FROM jwt_key WHERE kid = ?", signingKey.kid());
+
+        assertThat((String) actual.get("public_jwk")).contains(signingKey.kid()).doesNotContain("\"d\"");
+        assertThat(new String((byte[]) actual.get("encrypted_jwk"), StandardCharsets.ISO_8859_1)).doesNotContain(signingKey.kid());
+    }
+
+    @Test
+    void refresh_given_only_key_without_private_half_then_create_signing_key() {
+        jdbcTemplate.update(
+                "INSERT INTO jwt_key (kid, algorithm, public_jwk) VALUES ('legacy', 'EdDSA', ?)",
+                "{\"kty\":\"OKP\",\"crv\":\"Ed25519\",\"kid\":\"legacy\",\"x\":\"11qYAYKxCrfVS_7TyWQHOg7hcvPapiMlrwIaaPcHURo\"}"
+        );
+
+        jwtKeyRing.refresh();
+
+        assertThat(jwtKeyRing.getSigningKey().kid()).isNotEqualTo("legacy");
+        assertThat(jwtKeyRing.getVerifier("legacy", JWSAlgorithm.EdDSA)).isPresent();
+    }
+
+    @Test
+    void getVerifier_given_other_algorithm_then_return_empty() {
+        var signingKey = jwtKeyRing.getSigningKey();
+
+        var actual = jwtKeyRing.getVerifier(signingKey.kid(), JWSAlgorithm.RS256);
+
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void getPublicJwkSet_then_return_public_keys_only() {
+        var signingKey = jwtKeyRing.getSigningKey();
+
+        var actual = jwtKeyRing.getPublicJwkSet();
+
+        @SuppressWarnings("unchecked")
+        var keys = (List<Map<String, Object>>) actual.get("keys");
+        assertThat(keys).singleElement().satisfies(key -> {
+            assertThat(key).containsEntry("kid", signingKey.kid()).containsEntry("crv", "Ed25519");
+            assertThat(key).doesNotContainKey("d");
+        });
+    }
+
+}
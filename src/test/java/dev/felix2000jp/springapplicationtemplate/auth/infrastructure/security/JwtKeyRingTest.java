@@ -0,0 +1,36 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MockitoExtension.class)
+class JwtKeyRingTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private JwkCipher jwkCipher;
+
+    @Test
+    void constructor_given_retention_covering_rotation_token_lifetime_and_refresh_then_do_not_throw() {
+        assertThatCode(() -> new JwtKeyRing(jdbcTemplate, transactionManager, jwkCipher, JwtAlgorithm.EdDSA, 24, 37, 60))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void constructor_given_retention_without_refresh_interval_then_throw_exception() {
+        assertThatThrownBy(() -> new JwtKeyRing(jdbcTemplate, transactionManager, jwkCipher, JwtAlgorithm.EdDSA, 24, 36, 60))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("jwt.keys.retention-in-hours");
+    }
+
+}
@@ -0,0 +1,90 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import com.nimbusds.jose.JOSEException;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KeyRingJwtProcessorTest {
+
+    private JwtKeyRing jwtKeyRing;
+    private JwtEncoder jwtEncoder;
+    private JwtDecoder jwtDecoder;
+
+    private void setUp(JwtAlgorithm algorithm) throws JOSEException {
+        var jwk = algorithm.generate("kid");
+        var signingKey = new JwtKeyRing.SigningKey("kid", algorithm, algorithm.signer(jwk), Instant.now());
+
+        jwtKeyRing = mock(JwtKeyRing.class);
+        when(jwtKeyRing.getSigningKey()).thenReturn(signingKey);
+        when(jwtKeyRing.getVerifier(any(), any())).thenReturn(Optional.empty());
+        when(jwtKeyRing.getVerifier("kid", algorithm.jwsAlgorithm())).thenReturn(Optional.of(algorithm.verifier(jwk)));
+
+        jwtEncoder = new KeyRingJwtEncoder(jwtKeyRing);
+        jwtDecoder = new NimbusJwtDecoder(new KeyRingJwtProcessor(jwtKeyRing));
+    }
+
+    @ParameterizedTest
+    @EnumSource(JwtAlgorithm.class)
+    void decode_given_token_signed_by_ring_then_return_claims(JwtAlgorithm algorithm) throws JOSEException {
+        setUp(algorithm);
+        var token = encode();
+
+        var actual = jwtDecoder.decode(token);
+
+        assertThat(actual.getSubject()).isEqualTo("username");
+        assertThat(actual.getClaimAsString("scope")).isEqualTo("APPLICATION");
+        assertThat(actual.getHeaders()).containsEntry("kid", "kid").containsEntry("alg", algorithm.name());
+        assertThat(actual.getExpiresAt()).isAfter(Instant.now());
+    }
+
+    @ParameterizedTest
+    @EnumSource(JwtAlgorithm.class)
+    void decode_given_tampered_signature_then_throw_exception(JwtAlgorithm algorithm) throws JOSEException {
+        setUp(algorithm);
+        var token = encode();
+        var signatureStart = token.lastIndexOf('.') + 1;
+        var tampered = token.substring(0, signatureStart) + (token.charAt(signatureStart) == 'A' ? 'B' : 'A') + token.substring(signatureStart + 1);
+
+        assertThatThrownBy(() -> jwtDecoder.decode(tampered)).isInstanceOf(BadJwtException.class);
+    }
+
+    @ParameterizedTest
+    @EnumSource(JwtAlgorithm.class)
+    void decode_given_unknown_kid_then_throw_exception(JwtAlgorithm algorithm) throws JOSEException {
+        setUp(algorithm);
+        var token = encode();
+        when(jwtKeyRing.getVerifier("kid", algorithm.jwsAlgorithm())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> jwtDecoder.decode(token)).isInstanceOf(BadJwtException.class);
+    }
+
+    private String encode() {
+        var now = Instant.now();
+        var claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .subject("username")
+                .claim("scope", "APPLICATION")
+                .issuedAt(now)
+                .expiresAt(now.plus(12, ChronoUnit.HOURS))
+                .build();
+
+        return jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+
+}
@@ -0,0 +1,69 @@
+package dev.felix2000jp.springapplicationtemplate.auth.infrastructure.security;
+
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityScope;
+import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SecurityUserJwtAuthenticationConverterTest {
+
+    private final SecurityUserJwtAuthenticationConverter converter = new SecurityUserJwtAuthenticationConverter();
+
+    @Test
+    void convert_given_valid_claims_then_return_security_user_principal() {
+        var id = UUID.randomUUID();
+        var jwt = jwt(id.toString(), "ADMIN APPLICATION");
+
+        var actual = converter.convert(jwt);
+
+        assertThat(actual.getPrincipal()).isEqualTo(new SecurityUser(id, "username", Set.of(SecurityScope.ADMIN, SecurityScope.APPLICATION)));
+        assertThat(actual.getName()).isEqualTo("username");
+        assertThat(actual.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("SCOPE_ADMIN", "SCOPE_APPLICATION");
+        assertThat(actual.isAuthenticated()).isTrue();
+        assertThat(actual.getCredentials()).isSameAs(jwt);
+    }
+
+    @Test
+    void convert_given_missing_id_claim_then_throw_exception() {
+        var jwt = jwt(null, "APPLICATION");
+
+        assertThatThrownBy(() -> converter.convert(jwt)).isInstanceOf(InvalidBearerTokenException.class);
+    }
+
+    @Test
+    void convert_given_unknown_scope_then_throw_exception() {
+        var jwt = jwt(UUID.randomUUID().toString(), "ROOT");
+
+        assertThatThrownBy(() -> converter.convert(jwt)).isInstanceOf(InvalidBearerTokenException.class);
+    }
+
+    private static Jwt jwt(String id, String scope) {
+        var now = Instant.now();
+        var builder = Jwt
+                .withTokenValue("token")
+                .header("alg", "EdDSA")
+                .subject("username")
+                .claim("scope", scope)
+                .issuedAt(now)
+                .expiresAt(now.plus(1, ChronoUnit.HOURS));
+
+        if (id != null) {
+            builder.claim("id", id);
+        }
+
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,38 @@
+package dev.felix2000jp.springapplicationtemplate.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void next_then_return_version_7_uuid_with_rfc_variant() {
+        var actual = UuidV7Generator.next();
+
+        assertThat(actual.version()).isEqualTo(7);
+        assertThat(actual.variant()).isEqualTo(2);
+    }
+
+    @Test
+    void next_then_return_uuid_with_current_unix_timestamp() {
+        var before = System.currentTimeMillis();
+        var actual = UuidV7Generator.next();
+        var after = System.currentTimeMillis();
+
+        var timestamp = actual.getMostSignificantBits() >>> 16;
+        assertThat(timestamp).isBetween(before, after + 1_000);
+    }
+
+    @Test
+    void next_given_many_uuids_in_the_same_millisecond_then_return_increasing_uuids() {
+        var uuids = Stream.generate(UuidV7Generator::next).limit(10_000).toList();
+
+        // Postgres compares uuids as unsigned bytes, which is the order of their string representation
+        assertThat(uuids.stream().map(UUID::toString).toList()).isSorted().doesNotHaveDuplicates();
+    }
+
+}
@@ -0,0 +1,130 @@
+package dev.felix2000jp.springapplicationtemplate.core.database;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ReplicaRoutingDataSourceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        var replicas = new LinkedHashMap<String, DataSource>();
+        replicas.put("replica-0", mock(DataSource.class));
+        replicas.put("replica-1", mock(DataSource.class));
+
+        meterRegistry = new SimpleMeterRegistry();
+        replicaRoutingDataSource = new ReplicaRoutingDataSource(
+                mock(DataSource.class),
+                replicas,
+                Duration.ofMinutes(1),
+                meterRegistry
+        );
+
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void determineCurrentLookupKey_given_read_write_transaction_then_return_primary() {
+        var actual = replicaRoutingDataSource.determineCurrentLookupKey();
+
+        assertThat(actual).isEqualTo("primary");
+        assertThat(meterRegistry.get("datasource.routing").tag("pool", "primary").tag("reason", "write").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void determineCurrentLookupKey_given_read_only_transactions_then_alternate_between_replicas() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        var first = replicaRoutingDataSource.determineCurrentLookupKey();
+        var second = replicaRoutingDataSource.determineCurrentLookupKey();
+        var third = replicaRoutingDataSource.determineCurrentLookupKey();
+
+        assertThat(first).isEqualTo("replica-0");
+        assertThat(second).isEqualTo("replica-1");
+        assertThat(third).isEqualTo("replica-0");
+    }
+
+    @Test
+    void determineCurrentLookupKey_given_read_only_transaction_after_user_committed_a_write_then_return_primary() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("username", null));
+        replicaRoutingDataSource.determineCurrentLookupKey();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        var actual = replicaRoutingDataSource.determineCurrentLookupKey();
+
+        assertThat(actual).isEqualTo("primary");
+        assertThat(meterRegistry.get("datasource.routing").tag("reason", "read-your-writes").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void determineCurrentLookupKey_given_read_only_transaction_after_write_was_not_committed_then_return_replica() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("username", null));
+        replicaRoutingDataSource.determineCurrentLookupKey();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        var actual = replicaRoutingDataSource.determineCurrentLookupKey();
+
+        assertThat(actual).isEqualTo("replica-0");
+    }
+
+    @Test
+    void determineCurrentLookupKey_given_read_only_transaction_after_other_user_wrote_then_return_replica() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("other", null));
+        replicaRoutingDataSource.determineCurrentLookupKey();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("username", null));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        var actual = replicaRoutingDataSource.determineCurrentLookupKey();
+
+        assertThat(actual).isEqualTo("replica-0");
+    }
+
+    @Test
+    void determineCurrentLookupKey_given_read_only_transaction_reading_from_primary_then_return_primary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        var actual = ReadYourWrites.readFromPrimary(replicaRoutingDataSource::determineCurrentLookupKey);
+
+        assertThat(actual).isEqualTo("primary");
+        assertThat(meterRegistry.get("datasource.routing").tag("reason", "primary-read").counter().count()).isEqualTo(1);
+        assertThat(replicaRoutingDataSource.determineCurrentLookupKey()).isEqualTo("replica-0");
+    }
+
+    @Test
+    void determineCurrentLookupKey_given_read_only_transaction_after_write_recorded_for_unauthenticated_user_then_return_primary() {
+        replicaRoutingDataSource.determineCurrentLookupKey();
+        ReadYourWrites.recordWriteBy("username");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("username", null));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        var actual = replicaRoutingDataSource.determineCurrentLookupKey();
+
+        assertThat(actual).isEqualTo("primary");
+        assertThat(meterRegistry.get("datasource.routing").tag("reason", "read-your-writes").counter().count()).isEqualTo(1);
+    }
+
+}
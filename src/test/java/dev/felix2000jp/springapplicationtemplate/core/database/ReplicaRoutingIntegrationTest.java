@@ -0,0 +1,175 @@
+package dev.felix2000jp.springapplicationtemplate.core.database;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers
+class ReplicaRoutingIntegrationTest {
+
+    private static final String CLUSTER_NAME_QUERY = "SELECT current_setting('cluster_name')";
+
+    @Container
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres")
+            .withCommand("postgres", "-c", "fsync=off", "-c", "cluster_name=primary");
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres")
+            .withCommand("postgres", "-c", "fsync=off", "-c", "cluster_name=replica");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("spring.flyway.user", primary::getUsername);
+        registry.add("spring.flyway.password", primary::getPassword);
+        registry.add("datasource.replicas.urls", replica::getJdbcUrl);
+    }
+
+    // The replica container is not streaming from the primary, it only gets the same schema
+    @BeforeAll
+    static void migrateReplica() {
+        Flyway
+                .configure()
+                .dataSource(replica.getJdbcUrl(), replica.getUsername(), replica.getPassword())
+                .placeholders(Map.of("note-partition-count", "16"))
+                .load()
+                .migrate();
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void read_only_transaction_then_run_on_replica() {
+        var actual = queryClusterName(true);
+
+        assertThat(actual).isEqualTo("replica");
+    }
+
+    @Test
+    void read_write_transaction_then_run_on_primary() {
+        var actual = queryClusterName(false);
+
+        assertThat(actual).isEqualTo("primary");
+    }
+
+    @Test
+    void read_only_transaction_reading_from_primary_then_run_on_primary() {
+        var actual = ReadYourWrites.readFromPrimary(() -> queryClusterName(true));
+
+        assertThat(actual).isEqualTo("primary");
+    }
+
+    @Test
+    void read_only_transaction_after_user_wrote_then_run_on_primary() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("writer", null));
+        queryClusterName(false);
+
+        var actual = queryClusterName(true);
+
+        assertThat(actual).isEqualTo("primary");
+    }
+
+    @Test
+    void read_only_transaction_after_other_user_wrote_then_run_on_replica() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("other writer", null));
+        queryClusterName(false);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("reader", null));
+
+        var actual = queryClusterName(true);
+
+        assertThat(actual).isEqualTo("replica");
+    }
+
+    @Test
+    void register_then_read_right_away_on_primary() throws Exception {
+        mockMvc
+                .perform(post("/api/appusers/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"new username\",\"password\":\"password\"}"))
+                .andExpect(status().isCreated());
+
+        // The replica never gets the appuser, the login only finds it on the primary
+        mockMvc
+                .perform(get("/api/appusers").with(httpBasic("new username", "password")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void read_then_write_in_one_request_then_write_on_primary() throws Exception {
+        var appuserId = UUID.randomUUID();
+        var insertAppuser = "INSERT INTO appuser (id, username, password, scopes) VALUES (?, 'reader and writer', ?, 2)";
+        var encodedPassword = passwordEncoder.encode("password");
+        jdbcTemplate.update(insertAppuser, appuserId, encodedPassword);
+        replicaJdbcTemplate().update(insertAppuser, appuserId, encodedPassword);
+
+        // Looks the appuser up in a read only transaction and saves it afterwards in the same request
+        mockMvc
+                .perform(put("/api/appusers")
+                        .with(httpBasic("reader and writer", "password"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"updated username\",\"password\":\"updated password\"}"))
+                .andExpect(status().isNoContent());
+
+        var actual = jdbcTemplate.queryForObject("SELECT username FROM appuser WHERE id = ?", String.class, appuserId);
+        assertThat(actual).isEqualTo("updated username");
+    }
+
+    private JdbcTemplate replicaJdbcTemplate() {
+        return new JdbcTemplate(new DriverManagerDataSource(
+                replica.getJdbcUrl(),
+                replica.getUsername(),
+                replica.getPassword()
+        ));
+    }
+
+    private String queryClusterName(boolean readOnly) {
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(CLUSTER_NAME_QUERY, String.class));
+    }
+
+}
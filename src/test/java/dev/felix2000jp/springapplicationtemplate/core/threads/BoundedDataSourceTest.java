@@ -0,0 +1,100 @@
+package dev.felix2000jp.springapplicationtemplate.core.threads;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class BoundedDataSourceTest {
+
+    private DataSource targetDataSource;
+    private Connection targetConnection;
+    private BoundedDataSource boundedDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        targetDataSource = mock(DataSource.class);
+        targetConnection = mock(Connection.class);
+        when(targetDataSource.getConnection()).thenReturn(targetConnection);
+
+        boundedDataSource = new BoundedDataSource(
+                targetDataSource,
+                1,
+                Duration.ofMillis(50),
+                timeout -> targetDataSource.getConnection()
+        );
+    }
+
+    @Test
+    void getConnection_given_available_permit_then_return_connection_that_delegates_to_target() throws SQLException {
+        var connection = boundedDataSource.getConnection();
+        connection.setAutoCommit(false);
+
+        verify(targetConnection).setAutoCommit(false);
+        assertThat(boundedDataSource.getAvailablePermits()).isZero();
+    }
+
+    @Test
+    void getConnection_given_no_available_permit_then_throw_exception() throws SQLException {
+        boundedDataSource.getConnection();
+
+        assertThatThrownBy(() -> boundedDataSource.getConnection()).isInstanceOf(SQLTransientConnectionException.class);
+        verify(targetDataSource, times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_given_closed_connection_then_release_permit_once() throws SQLException {
+        var connection = boundedDataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        verify(targetConnection, times(2)).close();
+        assertThat(boundedDataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void getConnection_given_target_failure_then_release_permit() throws SQLException {
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("boom"));
+
+        assertThatThrownBy(() -> boundedDataSource.getConnection()).isInstanceOf(SQLException.class);
+        assertThat(boundedDataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void getConnection_given_wait_for_permit_then_pass_remaining_timeout_to_target() throws Exception {
+        var targetTimeout = new AtomicReference<Duration>();
+        boundedDataSource = new BoundedDataSource(
+                targetDataSource,
+                1,
+                Duration.ofMillis(500),
+                timeout -> {
+                    targetTimeout.set(timeout);
+                    return targetDataSource.getConnection();
+                }
+        );
+        var connection = boundedDataSource.getConnection();
+
+        try (var executor = Executors.newSingleThreadScheduledExecutor()) {
+            executor.schedule(() -> {
+                connection.close();
+                return null;
+            }, 200, TimeUnit.MILLISECONDS);
+
+            boundedDataSource.getConnection();
+        }
+
+        assertThat(targetTimeout.get()).isBetween(Duration.ZERO, Duration.ofMillis(400));
+    }
+
+}
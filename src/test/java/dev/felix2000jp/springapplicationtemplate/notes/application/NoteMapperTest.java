@@ -1,12 +1,23 @@
 package dev.felix2000jp.springapplicationtemplate.notes.application;
 
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
 import dev.felix2000jp.springapplicationtemplate.notes.domain.Note;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteChange;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteRepository;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteSearchPosition;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.InvalidNoteCursorException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class NoteMapperTest {
 
@@ -32,4 +43,114 @@ class NoteMapperTest {
         assertThat(actual.notes()).hasSameSizeAs(notes);
     }
 
+    @Test
+    void toCursorDto_given_empty_list_of_notes_then_map_to_dto_without_next_cursor() {
+        var actual = noteMapper.toCursorDto(List.of());
+
+        assertThat(actual.notes()).isEmpty();
+        assertThat(actual.nextCursor()).isNull();
+    }
+
+    @Test
+    void toCursorDto_given_full_page_of_notes_then_map_to_dto_with_cursor_of_last_note() {
+        var notes = Stream
+                .generate(() -> new Note(UUID.randomUUID(), "title", "content"))
+                .limit(NoteRepository.PAGE_SIZE)
+                .toList();
+        ReflectionTestUtils.setField(notes.getLast(), "id", UUID.randomUUID());
+
+        var actual = noteMapper.toCursorDto(notes);
+
+        assertThat(actual.notes()).hasSize(NoteRepository.PAGE_SIZE);
+        assertThat(noteMapper.fromCursor(actual.nextCursor())).isEqualTo(notes.getLast().getId());
+    }
+
+    @Test
+    void toCursorDto_given_last_page_of_notes_then_map_to_dto_without_next_cursor() {
+        var actual = noteMapper.toCursorDto(List.of(new Note(UUID.randomUUID(), "title", "content")));
+
+        assertThat(actual.notes()).hasSize(1);
+        assertThat(actual.nextCursor()).isNull();
+    }
+
+    @Test
+    void toChangesDto_given_changes_then_split_notes_and_deleted_ids_and_return_token_of_last_change() {
+        var updated = new NoteChange(UUID.randomUUID(), "title", "content", 1L, 4, false);
+        var deleted = new NoteChange(UUID.randomUUID(), null, null, null, 7, true);
+
+        var actual = noteMapper.toChangesDto(List.of(updated, deleted), 3);
+
+        assertThat(actual.notes()).extracting(NoteDto::id).containsExactly(updated.id());
+        assertThat(actual.deletedIds()).containsExactly(deleted.id());
+        assertThat(noteMapper.fromChangeToken(actual.nextToken())).isEqualTo(7);
+        assertThat(actual.hasMore()).isFalse();
+    }
+
+    @Test
+    void toChangesDto_given_full_page_of_changes_then_return_has_more() {
+        var changes = LongStream
+                .rangeClosed(1, NoteRepository.CHANGES_PAGE_SIZE)
+                .mapToObj(sequence -> new NoteChange(UUID.randomUUID(), "title", "content", 0L, sequence, false))
+                .toList();
+
+        var actual = noteMapper.toChangesDto(changes, 0);
+
+        assertThat(actual.hasMore()).isTrue();
+        assertThat(noteMapper.fromChangeToken(actual.nextToken())).isEqualTo(NoteRepository.CHANGES_PAGE_SIZE);
+    }
+
+    @Test
+    void toChangesDto_given_no_changes_then_return_token_of_after_sequence() {
+        var actual = noteMapper.toChangesDto(List.of(), 3);
+
+        assertThat(actual.notes()).isEmpty();
+        assertThat(actual.deletedIds()).isEmpty();
+        assertThat(noteMapper.fromChangeToken(actual.nextToken())).isEqualTo(3);
+    }
+
+    @Test
+    void fromChangeToken_given_null_token_then_return_zero() {
+        var actual = noteMapper.fromChangeToken(null);
+
+        assertThat(actual).isZero();
+    }
+
+    @Test
+    void toCursor_given_id_then_return_cursor_that_maps_back_to_id() {
+        var id = UUID.randomUUID();
+
+        var actual = noteMapper.fromCursor(noteMapper.toCursor(id));
+
+        assertThat(actual).isEqualTo(id);
+    }
+
+    @Test
+    void toSearchCursor_given_position_then_return_cursor_that_maps_back_to_position() {
+        var position = new NoteSearchPosition(0.0607927f, UUID.randomUUID());
+
+        var actual = noteMapper.fromSearchCursor(noteMapper.toSearchCursor(position));
+
+        assertThat(actual).isEqualTo(position);
+    }
+
+    @Test
+    void fromSearchCursor_given_note_cursor_then_throw_invalid_note_cursor_exception() {
+        var cursor = noteMapper.toCursor(UUID.randomUUID());
+
+        assertThatThrownBy(() -> noteMapper.fromSearchCursor(cursor)).isInstanceOf(InvalidNoteCursorException.class);
+    }
+
+    @Test
+    void fromCursor_given_null_cursor_then_return_null() {
+        var actual = noteMapper.fromCursor(null);
+
+        assertThat(actual).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not a cursor", "AAAA"})
+    void fromCursor_given_invalid_cursor_then_throw_invalid_note_cursor_exception(String cursor) {
+        assertThatThrownBy(() -> noteMapper.fromCursor(cursor)).isInstanceOf(InvalidNoteCursorException.class);
+    }
+
 }
@@ -1,28 +1,57 @@
 package dev.felix2000jp.springapplicationtemplate.notes.application;
 
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.CreateNoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.CreateNoteListDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteImportRejectionDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteSummaryDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteVersionDto;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.UpdateNoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.events.NoteChangeType;
+import dev.felix2000jp.springapplicationtemplate.notes.application.events.NoteChangedEvent;
 import dev.felix2000jp.springapplicationtemplate.notes.domain.Note;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteChange;
 import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteRepository;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteSearchHit;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.NoteChangeTokenExpiredException;
 import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.NoteNotFoundException;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.NoteVersionMismatchException;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityScope;
 import dev.felix2000jp.springapplicationtemplate.auth.application.SecurityService;
 import dev.felix2000jp.springapplicationtemplate.auth.domain.SecurityUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,13 +59,24 @@ class NoteServiceTest {
 
     @Mock
     private NoteRepository noteRepository;
+    @Mock
+    private NoteQueries noteQueries;
+    @Mock
+    private NotePublisher notePublisher;
     @Spy
     private NoteMapper noteMapper;
     @Mock
     private SecurityService securityService;
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
     @InjectMocks
     private NoteService noteService;
 
+    @Captor
+    private ArgumentCaptor<List<Note>> notesCaptor;
+
     private SecurityUser authenticatedSecurityUser;
 
     @BeforeEach
@@ -47,27 +87,23 @@ class NoteServiceTest {
                 Set.of(SecurityScope.APPLICATION)
         );
 
-        when(securityService.getUser()).thenReturn(authenticatedSecurityUser);
+        lenient().when(securityService.getUser()).thenReturn(authenticatedSecurityUser);
     }
 
     @Test
     void getNotesForCurrentUser_given_page_then_return_list_of_notes() {
-        var note = new Note(UUID.randomUUID(), "title", "content");
+        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content", 0L);
 
-        when(noteRepository.findAllByAppuserId(authenticatedSecurityUser.id(), 0)).thenReturn(List.of(note));
+        when(noteQueries.findAllByAppuserId(authenticatedSecurityUser.id(), 0)).thenReturn(List.of(noteDto));
 
         var actual = noteService.getNotesForCurrentUser(0);
-        var actualNote = actual.notes().getFirst();
 
-        assertThat(actual.notes()).hasSize(1);
-        assertThat(actualNote.id()).isEqualTo(note.getId());
-        assertThat(actualNote.title()).isEqualTo(note.getTitle());
-        assertThat(actualNote.content()).isEqualTo(note.getContent());
+        assertThat(actual.notes()).containsExactly(noteDto);
     }
 
     @Test
     void getNotesForCurrentUser_given_empty_page_then_return_empty_list_of_notes() {
-        when(noteRepository.findAllByAppuserId(authenticatedSecurityUser.id(), 0)).thenReturn(List.of());
+        when(noteQueries.findAllByAppuserId(authenticatedSecurityUser.id(), 0)).thenReturn(List.of());
 
         var actual = noteService.getNotesForCurrentUser(0);
 
@@ -75,23 +111,199 @@ class NoteServiceTest {
     }
 
     @Test
-    void getNoteByIdForCurrentUser_given_note_id_then_return_note() {
+    void getNoteSummariesForCurrentUser_given_page_then_return_list_of_note_summaries() {
+        var noteSummaryDto = new NoteSummaryDto(UUID.randomUUID(), "title", "content", 7);
+
+        when(noteQueries.findAllSummariesByAppuserId(authenticatedSecurityUser.id(), 0)).thenReturn(List.of(noteSummaryDto));
+
+        var actual = noteService.getNoteSummariesForCurrentUser(0);
+
+        assertThat(actual.notes()).containsExactly(noteSummaryDto);
+    }
+
+    @Test
+    void getNoteChangesForCurrentUser_given_token_then_return_changes_after_token() {
+        var noteChange = new NoteChange(UUID.randomUUID(), "title", "content", 1L, 8, false);
+        var since = noteMapper.toChangeToken(5);
+
+        when(noteRepository.findChangesByAppuserIdAfter(authenticatedSecurityUser.id(), 5)).thenReturn(List.of(noteChange));
+
+        var actual = noteService.getNoteChangesForCurrentUser(since);
+
+        assertThat(actual.notes()).extracting(NoteDto::id).containsExactly(noteChange.id());
+        assertThat(actual.deletedIds()).isEmpty();
+        assertThat(actual.nextToken()).isEqualTo(noteMapper.toChangeToken(8));
+    }
+
+    @Test
+    void getNoteChangesForCurrentUser_given_token_older_than_purged_tombstones_then_throw_exception() {
+        var since = noteMapper.toChangeToken(5);
+
+        when(noteRepository.findChangesByAppuserIdAfter(authenticatedSecurityUser.id(), 5)).thenReturn(List.of());
+        when(noteRepository.findTombstoneHorizonByAppuserId(authenticatedSecurityUser.id())).thenReturn(6L);
+
+        assertThatThrownBy(() -> noteService.getNoteChangesForCurrentUser(since))
+                .isInstanceOf(NoteChangeTokenExpiredException.class);
+    }
+
+    @Test
+    void getNoteChangesForCurrentUser_given_token_at_purged_tombstones_then_return_changes_after_token() {
+        var since = noteMapper.toChangeToken(6);
+
+        when(noteRepository.findChangesByAppuserIdAfter(authenticatedSecurityUser.id(), 6)).thenReturn(List.of());
+        when(noteRepository.findTombstoneHorizonByAppuserId(authenticatedSecurityUser.id())).thenReturn(6L);
+
+        var actual = noteService.getNoteChangesForCurrentUser(since);
+
+        assertThat(actual.nextToken()).isEqualTo(since);
+    }
+
+    @Test
+    void getNoteChangesForCurrentUser_given_no_token_then_return_changes_from_the_start() {
+        when(noteRepository.findChangesByAppuserIdAfter(authenticatedSecurityUser.id(), 0)).thenReturn(List.of());
+
+        var actual = noteService.getNoteChangesForCurrentUser(null);
+
+        assertThat(actual.notes()).isEmpty();
+        assertThat(actual.nextToken()).isEqualTo(noteMapper.toChangeToken(0));
+    }
+
+    @Test
+    void getNotesForCurrentUserAfter_given_cursor_then_return_notes_after_cursor_and_next_cursor() {
+        var afterId = UUID.randomUUID();
+        var notes = Stream
+                .generate(() -> new Note(UUID.randomUUID(), "title", "content"))
+                .limit(NoteRepository.PAGE_SIZE)
+                .toList();
+
+        var cursor = noteMapper.toCursor(afterId);
+
+        when(noteRepository.findAllByAppuserIdAfterId(authenticatedSecurityUser.id(), afterId)).thenReturn(notes);
+        doReturn("next-cursor").when(noteMapper).toCursor(notes.getLast().getId());
+
+        var actual = noteService.getNotesForCurrentUserAfter(cursor);
+
+        assertThat(actual.notes()).hasSize(NoteRepository.PAGE_SIZE);
+        assertThat(actual.notes().getFirst().title()).isEqualTo("title");
+        assertThat(actual.nextCursor()).isEqualTo("next-cursor");
+    }
+
+    @Test
+    void getNotesForCurrentUserAfter_given_last_page_then_return_notes_without_next_cursor() {
+        var afterId = UUID.randomUUID();
         var note = new Note(UUID.randomUUID(), "title", "content");
 
-        when(noteRepository.findByIdAndAppuserId(note.getId(), authenticatedSecurityUser.id())).thenReturn(Optional.of(note));
+        when(noteRepository.findAllByAppuserIdAfterId(authenticatedSecurityUser.id(), afterId)).thenReturn(List.of(note));
 
-        var actual = noteService.getNoteByIdForCurrentUser(note.getId());
+        var actual = noteService.getNotesForCurrentUserAfter(noteMapper.toCursor(afterId));
 
-        assertThat(actual.id()).isEqualTo(note.getId());
-        assertThat(actual.title()).isEqualTo(note.getTitle());
-        assertThat(actual.content()).isEqualTo(note.getContent());
+        assertThat(actual.notes()).hasSize(1);
+        assertThat(actual.nextCursor()).isNull();
+    }
+
+    @Test
+    void getNotesForCurrentUserAfter_given_empty_cursor_then_return_first_notes() {
+        when(noteRepository.findAllByAppuserIdAfterId(authenticatedSecurityUser.id(), null)).thenReturn(List.of());
+
+        var actual = noteService.getNotesForCurrentUserAfter("");
+
+        assertThat(actual.notes()).isEmpty();
+        assertThat(actual.nextCursor()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportNotesForCurrentUser_given_consumer_then_pass_every_note_to_consumer() {
+        var note = new Note(UUID.randomUUID(), "title", "content");
+        var exportedNotes = new ArrayList<NoteDto>();
+
+        doAnswer(invocation -> {
+            invocation.getArgument(1, Consumer.class).accept(note);
+            return null;
+        }).when(noteRepository).forEachByAppuserId(eq(authenticatedSecurityUser.id()), any());
+
+        noteService.exportNotesForCurrentUser(exportedNotes::add);
+
+        assertThat(exportedNotes).extracting(NoteDto::title).containsExactly(note.getTitle());
+    }
+
+    @Test
+    void searchNotesForCurrentUser_given_query_then_return_ranked_notes_and_next_cursor() {
+        var noteSearchHits = Stream
+                .generate(() -> new NoteSearchHit(UUID.randomUUID(), "title", "content", 0.5f, 0))
+                .limit(NoteRepository.PAGE_SIZE)
+                .toList();
+
+        when(noteRepository.searchByAppuserId(authenticatedSecurityUser.id(), "title", null)).thenReturn(noteSearchHits);
+
+        var actual = noteService.searchNotesForCurrentUser("title", null);
+
+        assertThat(actual.notes()).hasSize(NoteRepository.PAGE_SIZE);
+        assertThat(actual.notes().getFirst().id()).isEqualTo(noteSearchHits.getFirst().id());
+        assertThat(actual.nextCursor()).isEqualTo(noteMapper.toSearchCursor(noteSearchHits.getLast().toPosition()));
+    }
+
+    @Test
+    void searchNotesForCurrentUser_given_last_page_then_return_ranked_notes_without_next_cursor() {
+        var noteSearchHit = new NoteSearchHit(UUID.randomUUID(), "title", "content", 0.5f, 0);
+
+        when(noteRepository.searchByAppuserId(authenticatedSecurityUser.id(), "title", null)).thenReturn(List.of(noteSearchHit));
+
+        var actual = noteService.searchNotesForCurrentUser("title", null);
+
+        assertThat(actual.notes()).hasSize(1);
+        assertThat(actual.nextCursor()).isNull();
+    }
+
+    @Test
+    void getNoteVersionByIdForCurrentUser_given_note_id_then_return_version() {
+        var id = UUID.randomUUID();
+
+        when(noteRepository.findVersionByIdAndAppuserId(id, authenticatedSecurityUser.id())).thenReturn(Optional.of(2L));
+
+        var actual = noteService.getNoteVersionByIdForCurrentUser(id);
+
+        assertThat(actual).isEqualTo(2L);
+    }
+
+    @Test
+    void getNoteVersionByIdForCurrentUser_given_not_found_id_then_throw_note_not_found_exception() {
+        var id = UUID.randomUUID();
+
+        when(noteRepository.findVersionByIdAndAppuserId(id, authenticatedSecurityUser.id())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(
+                () -> noteService.getNoteVersionByIdForCurrentUser(id)
+        ).isInstanceOf(NoteNotFoundException.class);
+    }
+
+    @Test
+    void getNoteVersionsForCurrentUser_given_page_then_return_versions_of_notes() {
+        var noteVersionDto = new NoteVersionDto(UUID.randomUUID(), 1L);
+
+        when(noteQueries.findAllVersionsByAppuserId(authenticatedSecurityUser.id(), 0)).thenReturn(List.of(noteVersionDto));
+
+        var actual = noteService.getNoteVersionsForCurrentUser(0);
+
+        assertThat(actual).containsExactly(noteVersionDto);
+    }
+
+    @Test
+    void getNoteByIdForCurrentUser_given_note_id_then_return_note() {
+        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content", 0L);
+
+        when(noteQueries.findByIdAndAppuserId(noteDto.id(), authenticatedSecurityUser.id())).thenReturn(Optional.of(noteDto));
+
+        var actual = noteService.getNoteByIdForCurrentUser(noteDto.id());
+
+        assertThat(actual).isEqualTo(noteDto);
     }
 
     @Test
     void findByIdAndAppuserId_given_not_found_id_then_throw_note_not_found_exception() {
         var id = UUID.randomUUID();
 
-        when(noteRepository.findByIdAndAppuserId(id, authenticatedSecurityUser.id())).thenReturn(Optional.empty());
+        when(noteQueries.findByIdAndAppuserId(id, authenticatedSecurityUser.id())).thenReturn(Optional.empty());
 
         assertThatThrownBy(
                 () -> noteService.getNoteByIdForCurrentUser(id)
@@ -106,19 +318,68 @@ class NoteServiceTest {
 
         assertThat(actual.title()).isEqualTo(createNoteDto.title());
         assertThat(actual.content()).isEqualTo(createNoteDto.content());
+        verify(notePublisher).publish(new NoteChangedEvent(authenticatedSecurityUser.id(), NoteChangeType.CREATED, actual));
+    }
+
+    @Test
+    void createNotesForCurrentUser_given_dto_then_create_notes() {
+        var createNoteListDto = new CreateNoteListDto(List.of(
+                new CreateNoteDto("title 1", "content 1"),
+                new CreateNoteDto("title 2", "content 2")
+        ));
+
+        var actual = noteService.createNotesForCurrentUser(createNoteListDto);
+
+        verify(noteRepository).saveAll(notesCaptor.capture());
+
+        assertThat(notesCaptor.getValue()).hasSize(2).allSatisfy(
+                note -> assertThat(note.getAppuserId()).isEqualTo(authenticatedSecurityUser.id())
+        );
+        assertThat(actual.notes()).extracting(NoteDto::title).containsExactly("title 1", "title 2");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importNotesForCurrentUser_given_stream_of_dtos_then_copy_valid_notes_and_report_rejected_lines() {
+        var createNoteDtos = Stream.of(
+                new CreateNoteDto("title 1", "content 1"),
+                new CreateNoteDto(" ", "content 2"),
+                null,
+                new CreateNoteDto("title 4", "content 4")
+        );
+        var copiedNotes = new ArrayList<Note>();
+
+        when(noteRepository.copyAll(any())).thenAnswer(invocation -> {
+            invocation.getArgument(0, Stream.class).forEach(note -> copiedNotes.add((Note) note));
+            return (long) copiedNotes.size();
+        });
+
+        var actual = noteService.importNotesForCurrentUser(createNoteDtos);
+
+        assertThat(copiedNotes).extracting(Note::getTitle).containsExactly("title 1", "title 4");
+        assertThat(copiedNotes).allSatisfy(note -> assertThat(note.getAppuserId()).isEqualTo(authenticatedSecurityUser.id()));
+        assertThat(actual.imported()).isEqualTo(2);
+        assertThat(actual.rejected()).isEqualTo(2);
+        assertThat(actual.rejections()).extracting(NoteImportRejectionDto::line).containsExactly(2L, 3L);
     }
 
     @Test
     void updateNoteByIdForCurrentUser_given_id_and_dto_then_update_note() {
-        var note = new Note(UUID.randomUUID(), "title", "content");
+        var note = new Note(UUID.randomUUID(), "new title", "new content");
         var updateNoteDto = new UpdateNoteDto("new title", "new content");
 
-        when(noteRepository.findByIdAndAppuserId(note.getId(), authenticatedSecurityUser.id())).thenReturn(Optional.of(note));
+        when(noteRepository.updateByIdAndAppuserId(
+                note.getId(),
+                authenticatedSecurityUser.id(),
+                updateNoteDto.title(),
+                updateNoteDto.content()
+        )).thenReturn(Optional.of(note));
 
-        var actual = noteService.updateNoteByIdForCurrentUser(note.getId(), updateNoteDto);
+        var actual = noteService.updateNoteByIdForCurrentUser(note.getId(), updateNoteDto, null);
 
         assertThat(actual.title()).isEqualTo(updateNoteDto.title());
         assertThat(actual.content()).isEqualTo(updateNoteDto.content());
+        verify(notePublisher).publish(new NoteChangedEvent(authenticatedSecurityUser.id(), NoteChangeType.UPDATED, actual));
     }
 
     @Test
@@ -126,10 +387,72 @@ class NoteServiceTest {
         var id = UUID.randomUUID();
         var updateNoteDto = new UpdateNoteDto("new title", "new content");
 
-        when(noteRepository.findByIdAndAppuserId(id, authenticatedSecurityUser.id())).thenReturn(Optional.empty());
+        when(noteRepository.updateByIdAndAppuserId(
+                id,
+                authenticatedSecurityUser.id(),
+                updateNoteDto.title(),
+                updateNoteDto.content()
+        )).thenReturn(Optional.empty());
 
         assertThatThrownBy(
-                () -> noteService.updateNoteByIdForCurrentUser(id, updateNoteDto)
+                () -> noteService.updateNoteByIdForCurrentUser(id, updateNoteDto, null)
+        ).isInstanceOf(NoteNotFoundException.class);
+    }
+
+    @Test
+    void updateNoteByIdForCurrentUser_given_matching_version_then_update_note_only_if_version_matches() {
+        var note = new Note(UUID.randomUUID(), "new title", "new content");
+        var updateNoteDto = new UpdateNoteDto("new title", "new content");
+
+        when(noteRepository.updateByIdAndAppuserIdAndVersion(
+                note.getId(),
+                authenticatedSecurityUser.id(),
+                3L,
+                updateNoteDto.title(),
+                updateNoteDto.content()
+        )).thenReturn(Optional.of(note));
+
+        var actual = noteService.updateNoteByIdForCurrentUser(note.getId(), updateNoteDto, 3L);
+
+        assertThat(actual.title()).isEqualTo(updateNoteDto.title());
+        verify(noteRepository, never()).updateByIdAndAppuserId(any(), any(), any(), any());
+    }
+
+    @Test
+    void updateNoteByIdForCurrentUser_given_stale_version_then_throw_note_version_mismatch_exception() {
+        var id = UUID.randomUUID();
+        var updateNoteDto = new UpdateNoteDto("new title", "new content");
+
+        when(noteRepository.updateByIdAndAppuserIdAndVersion(
+                id,
+                authenticatedSecurityUser.id(),
+                3L,
+                updateNoteDto.title(),
+                updateNoteDto.content()
+        )).thenReturn(Optional.empty());
+        when(noteRepository.findVersionByIdAndAppuserId(id, authenticatedSecurityUser.id())).thenReturn(Optional.of(4L));
+
+        assertThatThrownBy(
+                () -> noteService.updateNoteByIdForCurrentUser(id, updateNoteDto, 3L)
+        ).isInstanceOf(NoteVersionMismatchException.class);
+    }
+
+    @Test
+    void updateNoteByIdForCurrentUser_given_version_and_not_found_id_then_throw_note_not_found_exception() {
+        var id = UUID.randomUUID();
+        var updateNoteDto = new UpdateNoteDto("new title", "new content");
+
+        when(noteRepository.updateByIdAndAppuserIdAndVersion(
+                id,
+                authenticatedSecurityUser.id(),
+                3L,
+                updateNoteDto.title(),
+                updateNoteDto.content()
+        )).thenReturn(Optional.empty());
+        when(noteRepository.findVersionByIdAndAppuserId(id, authenticatedSecurityUser.id())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(
+                () -> noteService.updateNoteByIdForCurrentUser(id, updateNoteDto, 3L)
         ).isInstanceOf(NoteNotFoundException.class);
     }
 
@@ -137,24 +460,61 @@ class NoteServiceTest {
     void deleteNoteByIdForCurrentUser_given_note_id_then_delete_note() {
         var note = new Note(UUID.randomUUID(), "title", "content");
 
-        when(noteRepository.findByIdAndAppuserId(note.getId(), authenticatedSecurityUser.id())).thenReturn(Optional.of(note));
+        when(noteRepository.deleteByIdAndAppuserId(note.getId(), authenticatedSecurityUser.id())).thenReturn(Optional.of(note));
 
         var actual = noteService.deleteNoteByIdForCurrentUser(note.getId());
 
         assertThat(actual.id()).isEqualTo(note.getId());
         assertThat(actual.title()).isEqualTo(note.getTitle());
         assertThat(actual.content()).isEqualTo(note.getContent());
+        verify(notePublisher).publish(new NoteChangedEvent(authenticatedSecurityUser.id(), NoteChangeType.DELETED, actual));
     }
 
     @Test
     void deleteNoteByIdForCurrentUser_given_not_found_id_then_throw_note_not_found_exception() {
         var id = UUID.randomUUID();
 
-        when(noteRepository.findByIdAndAppuserId(id, authenticatedSecurityUser.id())).thenReturn(Optional.empty());
+        when(noteRepository.deleteByIdAndAppuserId(id, authenticatedSecurityUser.id())).thenReturn(Optional.empty());
 
         assertThatThrownBy(
                 () -> noteService.deleteNoteByIdForCurrentUser(id)
         ).isInstanceOf(NoteNotFoundException.class);
+        verify(notePublisher, never()).publish(any());
+    }
+
+    @Test
+    void deleteNotesByAppuserId_given_appuser_id_then_delete_notes_in_chunks_until_none_are_left() {
+        var appuserId = UUID.randomUUID();
+
+        when(noteRepository.deleteChunkByAppuserId(appuserId, 1000)).thenReturn(1000, 1000, 42);
+
+        noteService.deleteNotesByAppuserId(appuserId);
+
+        verify(noteRepository, times(3)).deleteChunkByAppuserId(appuserId, 1000);
+        verify(noteRepository).deleteTombstonesByAppuserId(appuserId);
+        assertThat(meterRegistry.get("notes.purge.deleted").counter().count()).isEqualTo(2042);
+        assertThat(meterRegistry.get("notes.purge.chunk").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void deleteNotesByAppuserId_given_appuser_id_without_notes_then_stop_after_one_chunk() {
+        var appuserId = UUID.randomUUID();
+
+        when(noteRepository.deleteChunkByAppuserId(appuserId, 1000)).thenReturn(0);
+
+        noteService.deleteNotesByAppuserId(appuserId);
+
+        verify(noteRepository).deleteChunkByAppuserId(appuserId, 1000);
+        assertThat(meterRegistry.get("notes.purge.deleted").counter().count()).isZero();
+    }
+
+    @Test
+    void deleteNoteTombstonesOlderThan_given_retention_then_delete_tombstones_in_chunks_until_none_are_left() {
+        when(noteRepository.deleteTombstoneChunkCreatedBefore(any(), eq(1000))).thenReturn(1000, 7);
+
+        noteService.deleteNoteTombstonesOlderThan(Duration.ofDays(30));
+
+        verify(noteRepository, times(2)).deleteTombstoneChunkCreatedBefore(any(), eq(1000));
     }
 
 }
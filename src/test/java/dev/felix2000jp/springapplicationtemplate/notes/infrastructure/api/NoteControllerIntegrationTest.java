@@ -63,7 +63,7 @@ class NoteControllerIntegrationTest {
 
     @AfterEach
     void tearDown() {
-        noteRepository.deleteAllByAppuserId(note.getAppuserId());
+        noteRepository.deleteChunkByAppuserId(note.getAppuserId(), Integer.MAX_VALUE);
     }
 
     @Test
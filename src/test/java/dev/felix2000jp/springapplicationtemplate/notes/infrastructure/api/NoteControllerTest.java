@@ -2,10 +2,21 @@ package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.api;
 
 import dev.felix2000jp.springapplicationtemplate.notes.application.NoteService;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.CreateNoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.CreateNoteListDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteChangesDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteCursorListDto;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteImportDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteImportRejectionDto;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteListDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteSummaryDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteSummaryListDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteVersionDto;
 import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.UpdateNoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.InvalidNoteCursorException;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.NoteChangeTokenExpiredException;
 import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.NoteNotFoundException;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.exceptions.NoteVersionMismatchException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -16,14 +27,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.json.JsonCompareMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -34,13 +54,15 @@ class NoteControllerTest {
 
     @MockitoBean
     private NoteService noteService;
+    @MockitoBean
+    private NoteStreamHub noteStreamHub;
     @Autowired
     private MockMvc mockMvc;
 
     @Test
     @WithMockUser
     void getNotesForCurrentUser_given_page_param_then_return_200_and_page_of_notes() throws Exception {
-        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content");
+        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content", 0L);
         var noteListDto = new NoteListDto(List.of(noteDto));
 
         var expectedResponse = String.format("""
@@ -63,6 +85,64 @@ class NoteControllerTest {
                 .andExpect(content().json(expectedResponse));
     }
 
+    @Test
+    @WithMockUser
+    void getNoteSummariesForCurrentUser_given_summary_view_param_then_return_200_and_page_of_note_summaries() throws Exception {
+        var noteSummaryDto = new NoteSummaryDto(UUID.randomUUID(), "title", "content", 7);
+        var noteSummaryListDto = new NoteSummaryListDto(List.of(noteSummaryDto));
+
+        var expectedResponse = String.format("""
+                {
+                    "notes": [{ "id": "%s", "title": "%s", "snippet": "%s", "contentLength": %d }]
+                }
+                """, noteSummaryDto.id(), noteSummaryDto.title(), noteSummaryDto.snippet(), noteSummaryDto.contentLength());
+
+        when(noteService.getNoteSummariesForCurrentUser(1)).thenReturn(noteSummaryListDto);
+
+        mockMvc
+                .perform(get("/api/notes?view=summary&page=1"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(expectedResponse, JsonCompareMode.STRICT));
+    }
+
+    @Test
+    @WithMockUser
+    void getNotesForCurrentUser_given_if_none_match_header_of_same_page_then_return_304_without_loading_notes() throws Exception {
+        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content", 2L);
+
+        when(noteService.getNotesForCurrentUser(0)).thenReturn(new NoteListDto(List.of(noteDto)));
+        when(noteService.getNoteVersionsForCurrentUser(0)).thenReturn(List.of(new NoteVersionDto(noteDto.id(), 2L)));
+
+        var etag = mockMvc
+                .perform(get("/api/notes"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc
+                .perform(get("/api/notes").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(noteService, times(1)).getNotesForCurrentUser(0);
+    }
+
+    @Test
+    @WithMockUser
+    void getNotesForCurrentUser_given_if_none_match_header_of_changed_page_then_return_200_and_page_of_notes() throws Exception {
+        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content", 2L);
+
+        when(noteService.getNotesForCurrentUser(0)).thenReturn(new NoteListDto(List.of(noteDto)));
+        when(noteService.getNoteVersionsForCurrentUser(0)).thenReturn(List.of(new NoteVersionDto(noteDto.id(), 2L)));
+
+        mockMvc
+                .perform(get("/api/notes").header("If-None-Match", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.notes[0].id").value(noteDto.id().toString()));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"-1", "not a number"})
     @WithMockUser
@@ -74,10 +154,189 @@ class NoteControllerTest {
                 .andExpect(jsonPath("$.status").value(400));
     }
 
+    @Test
+    @WithMockUser
+    void getNotesForCurrentUserAfter_given_after_param_then_return_200_and_notes_with_next_cursor() throws Exception {
+        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content", 0L);
+        var noteCursorListDto = new NoteCursorListDto(List.of(noteDto), "next-cursor");
+
+        var expectedResponse = String.format("""
+                {
+                    "notes": [{ "id": "%s", "title": "%s", "content": "%s" }],
+                    "nextCursor": "next-cursor"
+                }
+                """, noteDto.id(), noteDto.title(), noteDto.content());
+
+        when(noteService.getNotesForCurrentUserAfter("cursor")).thenReturn(noteCursorListDto);
+
+        mockMvc
+                .perform(get("/api/notes?after=cursor"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(expectedResponse));
+    }
+
+    @Test
+    @WithMockUser
+    void getNotesForCurrentUserAfter_given_invalid_after_param_then_return_400() throws Exception {
+        var exception = new InvalidNoteCursorException();
+        when(noteService.getNotesForCurrentUserAfter("invalid")).thenThrow(exception);
+
+        mockMvc
+                .perform(get("/api/notes?after=invalid"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Bad Request"))
+                .andExpect(jsonPath("$.detail").value(exception.getMessage()))
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    @WithMockUser
+    void getNoteChangesForCurrentUser_given_since_param_then_return_200_and_changes() throws Exception {
+        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content", 0L);
+        var deletedId = UUID.randomUUID();
+        var noteChangesDto = new NoteChangesDto(List.of(noteDto), List.of(deletedId), "next-token", false);
+
+        var expectedResponse = String.format("""
+                {
+                    "notes": [{ "id": "%s", "title": "%s", "content": "%s" }],
+                    "deletedIds": ["%s"],
+                    "nextToken": "next-token",
+                    "hasMore": false
+                }
+                """, noteDto.id(), noteDto.title(), noteDto.content(), deletedId);
+
+        when(noteService.getNoteChangesForCurrentUser("token")).thenReturn(noteChangesDto);
+
+        mockMvc
+                .perform(get("/api/notes/changes?since=token"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(expectedResponse));
+    }
+
+    @Test
+    @WithMockUser
+    void getNoteChangesForCurrentUser_given_invalid_since_param_then_return_400() throws Exception {
+        var exception = new InvalidNoteCursorException();
+        when(noteService.getNoteChangesForCurrentUser("invalid")).thenThrow(exception);
+
+        mockMvc
+                .perform(get("/api/notes/changes?since=invalid"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value(exception.getMessage()));
+    }
+
+    @Test
+    @WithMockUser
+    void getNoteChangesForCurrentUser_given_expired_since_param_then_return_410() throws Exception {
+        var exception = new NoteChangeTokenExpiredException();
+        when(noteService.getNoteChangesForCurrentUser("expired")).thenThrow(exception);
+
+        mockMvc
+                .perform(get("/api/notes/changes?since=expired"))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.detail").value(exception.getMessage()));
+    }
+
+    @Test
+    @WithMockUser
+    void streamNoteChangesForCurrentUser_then_start_event_stream_of_current_user() throws Exception {
+        var appuserId = UUID.randomUUID();
+
+        when(noteService.getCurrentAppuserId()).thenReturn(appuserId);
+        when(noteStreamHub.subscribe(appuserId)).thenReturn(new SseEmitter());
+
+        mockMvc
+                .perform(get("/api/notes/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isOk());
+
+        verify(noteStreamHub).subscribe(appuserId);
+    }
+
+    @Test
+    @WithMockUser
+    @SuppressWarnings("unchecked")
+    void exportNotesForCurrentUser_then_return_200_and_stream_of_notes_as_ndjson() throws Exception {
+        var noteDto1 = new NoteDto(UUID.randomUUID(), "title 1", "content 1", 0L);
+        var noteDto2 = new NoteDto(UUID.randomUUID(), "title 2", "content 2", 0L);
+
+        var expectedResponse = String.format("""
+                {"id":"%s","title":"%s","content":"%s","version":0}
+                {"id":"%s","title":"%s","content":"%s","version":0}
+                """, noteDto1.id(), noteDto1.title(), noteDto1.content(), noteDto2.id(), noteDto2.title(), noteDto2.content());
+
+        doAnswer(invocation -> {
+            var consumer = invocation.getArgument(0, Consumer.class);
+            consumer.accept(noteDto1);
+            consumer.accept(noteDto2);
+            return null;
+        }).when(noteService).exportNotesForCurrentUser(any());
+
+        var mvcResult = mockMvc
+                .perform(get("/api/notes/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc
+                .perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(expectedResponse));
+    }
+
+    @Test
+    @WithMockUser
+    void exportNotesForCurrentUser_then_stream_with_configured_async_timeout() throws Exception {
+        var mvcResult = mockMvc
+                .perform(get("/api/notes/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(mvcResult.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+    }
+
+    @Test
+    @WithMockUser
+    void searchNotesForCurrentUser_given_query_param_then_return_200_and_notes() throws Exception {
+        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content", 0L);
+        var noteCursorListDto = new NoteCursorListDto(List.of(noteDto), "next-cursor");
+
+        var expectedResponse = String.format("""
+                {
+                    "notes": [{ "id": "%s", "title": "%s", "content": "%s" }],
+                    "nextCursor": "next-cursor"
+                }
+                """, noteDto.id(), noteDto.title(), noteDto.content());
+
+        when(noteService.searchNotesForCurrentUser("title", null)).thenReturn(noteCursorListDto);
+        when(noteService.searchNotesForCurrentUser("title", "cursor")).thenReturn(noteCursorListDto);
+
+        mockMvc
+                .perform(get("/api/notes/search?q=title"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(expectedResponse));
+
+        mockMvc
+                .perform(get("/api/notes/search?q=title&after=cursor"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(expectedResponse));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/api/notes/search", "/api/notes/search?q=", "/api/notes/search?q= "})
+    @WithMockUser
+    void searchNotesForCurrentUser_given_missing_or_blank_query_param_then_return_400(String url) throws Exception {
+        mockMvc
+                .perform(get(url))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Bad Request"))
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
     @Test
     @WithMockUser
     void getNoteByIdForCurrentUser_given_id_then_return_200_and_note() throws Exception {
-        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content");
+        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content", 0L);
         var expectedResponse = String.format("""
                 {
                     "id": "%s",
@@ -94,6 +353,50 @@ class NoteControllerTest {
                 .andExpect(content().json(expectedResponse));
     }
 
+    @Test
+    @WithMockUser
+    void getNoteByIdForCurrentUser_given_id_then_return_etag_of_note_version() throws Exception {
+        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content", 3L);
+
+        when(noteService.getNoteByIdForCurrentUser(noteDto.id())).thenReturn(noteDto);
+
+        mockMvc
+                .perform(get("/api/notes/" + noteDto.id()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    @WithMockUser
+    void getNoteByIdForCurrentUser_given_matching_if_none_match_header_then_return_304_without_loading_note() throws Exception {
+        var id = UUID.randomUUID();
+
+        when(noteService.getNoteVersionByIdForCurrentUser(id)).thenReturn(3L);
+
+        mockMvc
+                .perform(get("/api/notes/" + id).header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+
+        verify(noteService, never()).getNoteByIdForCurrentUser(any());
+    }
+
+    @Test
+    @WithMockUser
+    void getNoteByIdForCurrentUser_given_stale_if_none_match_header_then_return_200_and_note() throws Exception {
+        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content", 4L);
+
+        when(noteService.getNoteVersionByIdForCurrentUser(noteDto.id())).thenReturn(4L);
+        when(noteService.getNoteByIdForCurrentUser(noteDto.id())).thenReturn(noteDto);
+
+        mockMvc
+                .perform(get("/api/notes/" + noteDto.id()).header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
     @Test
     @WithMockUser
     void getNoteByIdForCurrentUser_given_not_found_id_then_return_404() throws Exception {
@@ -111,7 +414,7 @@ class NoteControllerTest {
     @Test
     @WithMockUser
     void createNoteForCurrentUser_given_valid_body_then_return_201_and_location_header_and_note() throws Exception {
-        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content");
+        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content", 0L);
         var createNoteDto = new CreateNoteDto(noteDto.title(), noteDto.content());
 
         var requestBody = String.format("""
@@ -141,18 +444,80 @@ class NoteControllerTest {
                 .andExpect(jsonPath("$.status").value(400));
     }
 
+    @Test
+    @WithMockUser
+    void createNotesForCurrentUser_given_valid_body_then_return_201_and_notes() throws Exception {
+        var noteDto = new NoteDto(UUID.randomUUID(), "title", "content", 0L);
+        var createNoteListDto = new CreateNoteListDto(List.of(new CreateNoteDto(noteDto.title(), noteDto.content())));
+
+        var requestBody = String.format("""
+                { "notes": [{ "title": "%s", "content": "%s" }] }
+                """, noteDto.title(), noteDto.content());
+        var expectedResponse = String.format("""
+                { "notes": [{ "id": "%s", "title": "%s", "content": "%s" }] }
+                """, noteDto.id(), noteDto.title(), noteDto.content());
+
+        when(noteService.createNotesForCurrentUser(createNoteListDto)).thenReturn(new NoteListDto(List.of(noteDto)));
+
+        mockMvc
+                .perform(post("/api/notes/bulk").with(csrf()).contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isCreated())
+                .andExpect(content().json(expectedResponse));
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    @WithMockUser
+    void createNotesForCurrentUser_given_invalid_request_body_then_return_400(String requestBody) throws Exception {
+        mockMvc
+                .perform(post("/api/notes/bulk").with(csrf()).contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Bad Request"))
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    @WithMockUser
+    @SuppressWarnings("unchecked")
+    void importNotesForCurrentUser_given_ndjson_body_then_return_200_and_import_report() throws Exception {
+        var requestBody = """
+                { "title": "title", "content": "content" }
+                not json
+                """;
+        var noteImportDto = new NoteImportDto(1, 1, 100, List.of(new NoteImportRejectionDto(2, "Line is not a valid note")));
+        var expectedResponse = """
+                {
+                    "imported": 1,
+                    "rejected": 1,
+                    "rowsPerSecond": 100,
+                    "rejections": [{ "line": 2, "reason": "Line is not a valid note" }]
+                }
+                """;
+
+        when(noteService.importNotesForCurrentUser(any())).thenAnswer(invocation -> {
+            var createNoteDtos = invocation.getArgument(0, Stream.class).toList();
+            assertThat(createNoteDtos).containsExactly(new CreateNoteDto("title", "content"), null);
+            return noteImportDto;
+        });
+
+        mockMvc
+                .perform(post("/api/notes/import").with(csrf()).contentType(MediaType.APPLICATION_NDJSON).content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(content().json(expectedResponse));
+    }
+
     @Test
     @WithMockUser
     void updateNoteByIdForCurrentUser_given_id_param_and_body_then_return_204() throws Exception {
         var id = UUID.randomUUID();
-        var noteDto = new NoteDto(id, "title", "content");
+        var noteDto = new NoteDto(id, "title", "content", 0L);
         var updateNoteDto = new UpdateNoteDto(noteDto.title(), noteDto.content());
 
         var requestBody = String.format("""
                 { "title": "%s", "content": "%s" }
                 """, updateNoteDto.title(), updateNoteDto.content());
 
-        when(noteService.updateNoteByIdForCurrentUser(id, updateNoteDto)).thenReturn(noteDto);
+        when(noteService.updateNoteByIdForCurrentUser(id, updateNoteDto, null)).thenReturn(noteDto);
 
         mockMvc
                 .perform(put("/api/notes/" + id).with(csrf()).contentType(MediaType.APPLICATION_JSON).content(requestBody))
@@ -170,7 +535,7 @@ class NoteControllerTest {
                 """, updateNoteDto.title(), updateNoteDto.content());
 
         var exception = new NoteNotFoundException();
-        when(noteService.updateNoteByIdForCurrentUser(id, updateNoteDto)).thenThrow(exception);
+        when(noteService.updateNoteByIdForCurrentUser(id, updateNoteDto, null)).thenThrow(exception);
 
         mockMvc
                 .perform(put("/api/notes/" + id).with(csrf()).contentType(MediaType.APPLICATION_JSON).content(requestBody))
@@ -180,6 +545,66 @@ class NoteControllerTest {
                 .andExpect(jsonPath("$.status").value(404));
     }
 
+    @Test
+    @WithMockUser
+    void updateNoteByIdForCurrentUser_given_if_match_header_then_update_with_version_and_return_204_and_new_etag() throws Exception {
+        var id = UUID.randomUUID();
+        var noteDto = new NoteDto(id, "title", "content", 4L);
+        var updateNoteDto = new UpdateNoteDto(noteDto.title(), noteDto.content());
+
+        var requestBody = String.format("""
+                { "title": "%s", "content": "%s" }
+                """, updateNoteDto.title(), updateNoteDto.content());
+
+        when(noteService.updateNoteByIdForCurrentUser(id, updateNoteDto, 3L)).thenReturn(noteDto);
+
+        mockMvc
+                .perform(put("/api/notes/" + id)
+                        .with(csrf())
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    @WithMockUser
+    void updateNoteByIdForCurrentUser_given_stale_if_match_header_then_return_412() throws Exception {
+        var id = UUID.randomUUID();
+        var updateNoteDto = new UpdateNoteDto("title", "content");
+
+        var requestBody = String.format("""
+                { "title": "%s", "content": "%s" }
+                """, updateNoteDto.title(), updateNoteDto.content());
+
+        var exception = new NoteVersionMismatchException();
+        when(noteService.updateNoteByIdForCurrentUser(id, updateNoteDto, 3L)).thenThrow(exception);
+
+        mockMvc
+                .perform(put("/api/notes/" + id)
+                        .with(csrf())
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.detail").value(exception.getMessage()))
+                .andExpect(jsonPath("$.status").value(412));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"3", "W/\"3\"", "\"not a version\""})
+    @WithMockUser
+    void updateNoteByIdForCurrentUser_given_invalid_if_match_header_then_return_412(String ifMatch) throws Exception {
+        mockMvc
+                .perform(put("/api/notes/" + UUID.randomUUID())
+                        .with(csrf())
+                        .header("If-Match", ifMatch)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"title\": \"title\", \"content\": \"content\" }"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @ParameterizedTest
     @MethodSource
     @WithMockUser
@@ -195,7 +620,7 @@ class NoteControllerTest {
     @WithMockUser
     void deleteNoteByIdForCurrentUser_given_id_then_return_204() throws Exception {
         var id = UUID.randomUUID();
-        var noteDto = new NoteDto(id, "title", "content");
+        var noteDto = new NoteDto(id, "title", "content", 0L);
 
         when(noteService.deleteNoteByIdForCurrentUser(id)).thenReturn(noteDto);
 
@@ -245,6 +670,18 @@ class NoteControllerTest {
         );
     }
 
+    private static Stream<Arguments> createNotesForCurrentUser_given_invalid_request_body_then_return_400() {
+        return Stream.of(
+                arguments(""),
+                arguments("{}"),
+                arguments("{ 'notes': null }"),
+                arguments("{ 'notes': [] }"),
+                arguments("{ 'notes': [null] }"),
+                arguments("{ 'notes': [{ 'title': 'title' }] }"),
+                arguments("{ 'notes': [{ 'title': 'title', 'content': 'content' }, { 'title': ' ', 'content': 'content' }] }")
+        );
+    }
+
     private static Stream<Arguments> updateNoteByIdForCurrentUse_given_invalid_request_body_then_return_400() {
         return Stream.of(
                 arguments(""),
@@ -0,0 +1,167 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.api;
+
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.application.events.NoteChangeType;
+import dev.felix2000jp.springapplicationtemplate.notes.application.events.NoteChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+class NoteStreamHubTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private NoteStreamHub noteStreamHub;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        noteStreamHub = new NoteStreamHub(meterRegistry);
+        ReflectionTestUtils.setField(noteStreamHub, "bufferSize", 4);
+        ReflectionTestUtils.setField(noteStreamHub, "timeoutInMinutes", 1);
+    }
+
+    @Test
+    void subscribe_given_appuser_id_then_register_subscriber() {
+        noteStreamHub.subscribe(UUID.randomUUID());
+        noteStreamHub.subscribe(UUID.randomUUID());
+
+        assertThat(noteStreamHub.countSubscribers()).isEqualTo(2);
+        assertThat(meterRegistry.get("notes.stream.subscribers").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void on_given_event_of_appuser_without_subscribers_then_do_nothing() {
+        var event = new NoteChangedEvent(
+                UUID.randomUUID(),
+                NoteChangeType.CREATED,
+                new NoteDto(UUID.randomUUID(), "title", "content", 0L)
+        );
+
+        assertThatCode(() -> noteStreamHub.on(event)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void sendHeartbeats_given_subscribers_then_keep_subscribers() {
+        noteStreamHub.subscribe(UUID.randomUUID());
+
+        noteStreamHub.sendHeartbeats();
+
+        assertThat(noteStreamHub.countSubscribers()).isEqualTo(1);
+        assertThat(meterRegistry.get("notes.stream.evicted").counter().count()).isZero();
+    }
+
+    @Test
+    void on_given_event_of_subscribed_appuser_then_send_it_to_the_emitter() throws InterruptedException {
+        var appuserId = UUID.randomUUID();
+        var note = new NoteDto(UUID.randomUUID(), "title", "content", 0L);
+        var emitter = new RecordingSseEmitter();
+        noteStreamHub.subscribe(appuserId, emitter);
+
+        noteStreamHub.on(new NoteChangedEvent(appuserId, NoteChangeType.CREATED, note));
+
+        assertThat(emitter.nextEvent())
+                .extracting(ResponseBodyEmitter.DataWithMediaType::getData)
+                .contains("event:created\ndata:", note);
+    }
+
+    @Test
+    void on_given_event_of_other_appuser_then_send_nothing_to_the_emitter() throws InterruptedException {
+        var appuserId = UUID.randomUUID();
+        var otherAppuserId = UUID.randomUUID();
+        var emitter = new RecordingSseEmitter();
+        var otherEmitter = new RecordingSseEmitter();
+        noteStreamHub.subscribe(appuserId, emitter);
+        noteStreamHub.subscribe(otherAppuserId, otherEmitter);
+
+        noteStreamHub.on(new NoteChangedEvent(
+                otherAppuserId,
+                NoteChangeType.CREATED,
+                new NoteDto(UUID.randomUUID(), "title", "content", 0L)
+        ));
+        noteStreamHub.sendHeartbeats();
+
+        // Messages of a subscriber are sent in order, the heartbeat coming first means the event never got queued
+        assertThat(emitter.nextEvent())
+                .extracting(ResponseBodyEmitter.DataWithMediaType::getData)
+                .containsExactly(":heartbeat\n\n");
+        assertThat(otherEmitter.nextEvent())
+                .extracting(ResponseBodyEmitter.DataWithMediaType::getData)
+                .contains("event:created\ndata:");
+    }
+
+    @Test
+    void on_given_subscriber_with_full_buffer_then_evict_it() {
+        var appuserId = UUID.randomUUID();
+        var emitter = new RecordingSseEmitter();
+        emitter.blockSends();
+        noteStreamHub.subscribe(appuserId, emitter);
+
+        // The blocked send keeps the buffer of four from draining, at most one of the six events leaves it
+        for (var version = 0L; version < 6; version++) {
+            noteStreamHub.on(new NoteChangedEvent(
+                    appuserId,
+                    NoteChangeType.UPDATED,
+                    new NoteDto(UUID.randomUUID(), "title", "content", version)
+            ));
+        }
+
+        assertThat(noteStreamHub.countSubscribers()).isZero();
+        assertThat(emitter.isCompleted()).isTrue();
+        assertThat(meterRegistry.get("notes.stream.evicted").counter().count()).isEqualTo(1);
+    }
+
+    private static class RecordingSseEmitter extends SseEmitter {
+
+        private final BlockingQueue<List<ResponseBodyEmitter.DataWithMediaType>> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch sendsUnblocked = new CountDownLatch(1);
+        private volatile boolean sendsBlocked;
+        private volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (sendsBlocked) {
+                try {
+                    sendsUnblocked.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            events.add(List.copyOf(builder.build()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        void blockSends() {
+            sendsBlocked = true;
+        }
+
+        boolean isCompleted() {
+            return completed;
+        }
+
+        List<ResponseBodyEmitter.DataWithMediaType> nextEvent() throws InterruptedException {
+            var event = events.poll(5, TimeUnit.SECONDS);
+            assertThat(event).as("event sent to the emitter").isNotNull();
+            return event;
+        }
+
+    }
+
+}
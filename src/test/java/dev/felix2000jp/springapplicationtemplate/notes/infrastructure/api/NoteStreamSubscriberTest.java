@@ -0,0 +1,70 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class NoteStreamSubscriberTest {
+
+    @Mock
+    private SseEmitter emitter;
+
+    @Test
+    void offer_given_started_subscriber_then_send_messages_to_emitter() throws Exception {
+        var subscriber = new NoteStreamSubscriber(emitter, 4);
+        subscriber.start();
+
+        subscriber.offer(new NoteStreamMessage("created", "note 1"));
+        subscriber.offer(NoteStreamMessage.HEARTBEAT);
+
+        verify(emitter, timeout(1000).times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        subscriber.stop();
+    }
+
+    @Test
+    void offer_given_full_buffer_then_return_false() throws Exception {
+        var sendStarted = new CountDownLatch(1);
+        var releaseSend = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sendStarted.countDown();
+            releaseSend.await();
+            return null;
+        }).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        var subscriber = new NoteStreamSubscriber(emitter, 1);
+        subscriber.start();
+        subscriber.offer(new NoteStreamMessage("created", "note 1"));
+        sendStarted.await();
+
+        var firstBufferedOffer = subscriber.offer(new NoteStreamMessage("updated", "note 1"));
+        var overflowingOffer = subscriber.offer(new NoteStreamMessage("deleted", "note 1"));
+
+        assertThat(firstBufferedOffer).isTrue();
+        assertThat(overflowingOffer).isFalse();
+        releaseSend.countDown();
+        subscriber.stop();
+    }
+
+    @Test
+    void evict_given_started_subscriber_then_complete_emitter() {
+        var subscriber = new NoteStreamSubscriber(emitter, 4);
+        subscriber.start();
+
+        subscriber.evict();
+
+        verify(emitter, times(1)).complete();
+    }
+
+}
@@ -0,0 +1,143 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.database;
+
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteSummaryDto;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.Note;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Testcontainers
+@Import({DefaultNoteQueries.class, NoteCache.class, SimpleMeterRegistry.class})
+class DefaultNoteQueriesIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres");
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private DefaultNoteQueries noteQueries;
+
+    private Note note;
+
+    @BeforeEach
+    void setUp() {
+        note = new Note(UUID.randomUUID(), "title", "content");
+        testEntityManager.persistAndFlush(note);
+
+        testEntityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testEntityManager.clear();
+
+        testEntityManager
+                .getEntityManager()
+                .createNativeQuery("TRUNCATE TABLE note")
+                .executeUpdate();
+    }
+
+    @Test
+    void findAllByAppuserId_given_appuser_id_and_page_then_return_notes() {
+        var actual = noteQueries.findAllByAppuserId(note.getAppuserId(), 0);
+
+        assertThat(actual).hasSize(1);
+        assertThat(actual.getFirst().id()).isEqualTo(note.getId());
+        assertThat(actual.getFirst().title()).isEqualTo(note.getTitle());
+        assertThat(actual.getFirst().content()).isEqualTo(note.getContent());
+    }
+
+    @Test
+    void findAllByAppuserId_given_appuser_id_and_empty_page_then_return_empty_list() {
+        var actual = noteQueries.findAllByAppuserId(note.getAppuserId(), 1);
+
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void findAllSummariesByAppuserId_given_appuser_id_and_page_then_return_note_summaries() {
+        var longNote = new Note(note.getAppuserId(), "long title", "a".repeat(500));
+        testEntityManager.persistAndFlush(longNote);
+        testEntityManager.clear();
+
+        var actual = noteQueries.findAllSummariesByAppuserId(note.getAppuserId(), 0);
+
+        assertThat(actual).hasSize(2);
+        assertThat(actual).anySatisfy(summary -> {
+            assertThat(summary.id()).isEqualTo(note.getId());
+            assertThat(summary.snippet()).isEqualTo("content");
+            assertThat(summary.contentLength()).isEqualTo(7);
+        });
+        assertThat(actual).anySatisfy(summary -> {
+            assertThat(summary.id()).isEqualTo(longNote.getId());
+            assertThat(summary.snippet()).hasSize(200);
+            assertThat(summary.contentLength()).isEqualTo(500);
+        });
+    }
+
+    @Test
+    void findAllSummariesByAppuserId_given_more_than_one_page_then_return_every_note_once_in_id_order() {
+        for (var i = 0; i < NoteRepository.PAGE_SIZE * 2; i++) {
+            testEntityManager.persist(new Note(note.getAppuserId(), "title " + i, "content " + i));
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        var actual = IntStream
+                .rangeClosed(0, 2)
+                .mapToObj(pageNumber -> noteQueries.findAllSummariesByAppuserId(note.getAppuserId(), pageNumber))
+                .flatMap(List::stream)
+                .map(NoteSummaryDto::id)
+                .toList();
+
+        assertThat(actual).hasSize(NoteRepository.PAGE_SIZE * 2 + 1).doesNotHaveDuplicates();
+        // PostgreSQL compares uuids byte by byte, which is the order of their string form
+        assertThat(actual).isSortedAccordingTo(Comparator.comparing(UUID::toString));
+    }
+
+    @Test
+    void findAllSummariesByAppuserId_given_appuser_id_and_empty_page_then_return_empty_list() {
+        var actual = noteQueries.findAllSummariesByAppuserId(note.getAppuserId(), 1);
+
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void findByIdAndAppuserId_given_id_and_appuser_id_then_return_note() {
+        var actual = noteQueries.findByIdAndAppuserId(note.getId(), note.getAppuserId());
+
+        assertThat(actual).hasValueSatisfying(noteDto -> {
+            assertThat(noteDto.id()).isEqualTo(note.getId());
+            assertThat(noteDto.title()).isEqualTo(note.getTitle());
+            assertThat(noteDto.content()).isEqualTo(note.getContent());
+        });
+    }
+
+    @Test
+    void findByIdAndAppuserId_given_id_of_other_appuser_then_return_empty_optional() {
+        var actual = noteQueries.findByIdAndAppuserId(note.getId(), UUID.randomUUID());
+
+        assertThat(actual).isEmpty();
+    }
+
+}
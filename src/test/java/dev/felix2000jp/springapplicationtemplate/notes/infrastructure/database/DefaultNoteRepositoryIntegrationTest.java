@@ -1,6 +1,8 @@
 package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.database;
 
 import dev.felix2000jp.springapplicationtemplate.notes.domain.Note;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.NoteChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,7 +18,11 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.UUID;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
@@ -24,7 +30,7 @@ import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 @DataJpaTest
 @Testcontainers
-@Import(DefaultNoteRepository.class)
+@Import({DefaultNoteRepository.class, NoteCache.class, SimpleMeterRegistry.class})
 class DefaultNoteRepositoryIntegrationTest {
 
     @Container
@@ -52,24 +58,131 @@ class DefaultNoteRepositoryIntegrationTest {
 
         testEntityManager
                 .getEntityManager()
-                .createNativeQuery("TRUNCATE TABLE note")
+                .createNativeQuery("TRUNCATE TABLE note, note_tombstone, note_tombstone_horizon")
                 .executeUpdate();
     }
 
     @Test
-    void findAllByAppuserId_given_appuser_id_and_page_then_return_notes() {
-        var actual = noteRepository.findAllByAppuserId(note.getAppuserId(), 0);
+    void findAllByAppuserIdAfterId_given_appuser_id_and_no_after_id_then_return_first_notes() {
+        var actual = noteRepository.findAllByAppuserIdAfterId(note.getAppuserId(), null);
 
-        assertThat(actual).isNotEmpty();
+        assertThat(actual).extracting(Note::getId).containsExactly(note.getId());
     }
 
     @Test
-    void findAllByAppuserId_given_appuser_id_and_empty_page_then_return_empty_list() {
-        var actual = noteRepository.findAllByAppuserId(note.getAppuserId(), 1);
+    void findAllByAppuserIdAfterId_given_appuser_id_and_last_id_then_return_empty_list() {
+        var actual = noteRepository.findAllByAppuserIdAfterId(note.getAppuserId(), note.getId());
 
         assertThat(actual).isEmpty();
     }
 
+    @Test
+    void forEachByAppuserId_given_appuser_id_then_pass_every_note_to_consumer() {
+        var actual = new ArrayList<Note>();
+
+        noteRepository.forEachByAppuserId(note.getAppuserId(), actual::add);
+
+        assertThat(actual).extracting(Note::getId).containsExactly(note.getId());
+    }
+
+    @Test
+    void forEachByAppuserId_given_not_found_appuser_id_then_never_call_consumer() {
+        var actual = new ArrayList<Note>();
+
+        noteRepository.forEachByAppuserId(UUID.randomUUID(), actual::add);
+
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void searchByAppuserId_given_appuser_id_and_matching_query_then_return_ranked_notes() {
+        var actual = noteRepository.searchByAppuserId(note.getAppuserId(), "title", null);
+
+        assertThat(actual).hasSize(1);
+        assertThat(actual.getFirst().id()).isEqualTo(note.getId());
+        assertThat(actual.getFirst().rank()).isPositive();
+    }
+
+    @Test
+    void searchByAppuserId_given_appuser_id_and_last_position_then_return_empty_list() {
+        var hit = noteRepository.searchByAppuserId(note.getAppuserId(), "title", null).getFirst();
+
+        var actual = noteRepository.searchByAppuserId(note.getAppuserId(), "title", hit.toPosition());
+
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void searchByAppuserId_given_appuser_id_and_not_matching_query_then_return_empty_list() {
+        var actual = noteRepository.searchByAppuserId(note.getAppuserId(), "nothing", null);
+
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void findChangesByAppuserIdAfter_given_updated_and_deleted_notes_then_return_changes_in_order() {
+        var deletedNote = new Note(note.getAppuserId(), "deleted title", "deleted content");
+        testEntityManager.persistAndFlush(deletedNote);
+        testEntityManager.clear();
+
+        var initialChanges = noteRepository.findChangesByAppuserIdAfter(note.getAppuserId(), 0);
+        noteRepository.updateByIdAndAppuserId(note.getId(), note.getAppuserId(), "new title", "new content");
+        noteRepository.deleteByIdAndAppuserId(deletedNote.getId(), deletedNote.getAppuserId());
+        testEntityManager.clear();
+
+        var actual = noteRepository.findChangesByAppuserIdAfter(note.getAppuserId(), initialChanges.getLast().sequence());
+
+        assertThat(initialChanges).extracting(NoteChange::id).containsExactly(note.getId(), deletedNote.getId());
+        assertThat(actual).extracting(NoteChange::id).containsExactly(note.getId(), deletedNote.getId());
+        assertThat(actual).extracting(NoteChange::deleted).containsExactly(false, true);
+        assertThat(actual.getFirst().title()).isEqualTo("new title");
+    }
+
+    @Test
+    void findChangesByAppuserIdAfter_given_sequence_of_last_change_then_return_empty_list() {
+        var changes = noteRepository.findChangesByAppuserIdAfter(note.getAppuserId(), 0);
+
+        var actual = noteRepository.findChangesByAppuserIdAfter(note.getAppuserId(), changes.getLast().sequence());
+
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void deleteTombstoneChunkCreatedBefore_given_old_tombstone_then_delete_it_and_move_horizon_to_its_sequence() {
+        noteRepository.deleteByIdAndAppuserId(note.getId(), note.getAppuserId());
+        var tombstone = noteRepository.findChangesByAppuserIdAfter(note.getAppuserId(), 0).getLast();
+        testEntityManager
+                .getEntityManager()
+                .createNativeQuery("UPDATE note_tombstone SET created_at = now() - interval '31 days'")
+                .executeUpdate();
+
+        var actual = noteRepository.deleteTombstoneChunkCreatedBefore(Instant.now().minus(Duration.ofDays(30)), 1000);
+
+        assertThat(actual).isEqualTo(1);
+        assertThat(noteRepository.findChangesByAppuserIdAfter(note.getAppuserId(), 0)).isEmpty();
+        assertThat(noteRepository.findTombstoneHorizonByAppuserId(note.getAppuserId())).isEqualTo(tombstone.sequence());
+    }
+
+    @Test
+    void deleteTombstoneChunkCreatedBefore_given_recent_tombstone_then_keep_it() {
+        noteRepository.deleteByIdAndAppuserId(note.getId(), note.getAppuserId());
+
+        var actual = noteRepository.deleteTombstoneChunkCreatedBefore(Instant.now().minus(Duration.ofDays(30)), 1000);
+
+        assertThat(actual).isZero();
+        assertThat(noteRepository.findTombstoneHorizonByAppuserId(note.getAppuserId())).isZero();
+    }
+
+    @Test
+    void deleteTombstonesByAppuserId_given_purged_tombstones_then_delete_horizon() {
+        noteRepository.deleteByIdAndAppuserId(note.getId(), note.getAppuserId());
+        noteRepository.deleteTombstoneChunkCreatedBefore(Instant.now().plus(Duration.ofMinutes(1)), 1000);
+
+        noteRepository.deleteTombstonesByAppuserId(note.getAppuserId());
+
+        assertThat(noteRepository.findTombstoneHorizonByAppuserId(note.getAppuserId())).isZero();
+    }
+
     @Test
     void findByIdAndAppuserId_given_id_and_appuser_id_then_return_note() {
         var actual = noteRepository.findByIdAndAppuserId(note.getId(), note.getAppuserId());
@@ -85,40 +198,117 @@ class DefaultNoteRepositoryIntegrationTest {
     }
 
     @Test
-    void deleteById_given_note_id_then_delete_note() {
-        noteRepository.deleteById(note.getId());
+    void findByIdAndAppuserId_given_note_updated_after_being_read_then_return_updated_note() {
+        noteRepository.findByIdAndAppuserId(note.getId(), note.getAppuserId());
+        noteRepository.updateByIdAndAppuserId(note.getId(), note.getAppuserId(), "new title", "new content");
+        testEntityManager.clear();
+
+        var actual = noteRepository.findByIdAndAppuserId(note.getId(), note.getAppuserId());
+
+        assertThat(actual).isPresent();
+        assertThat(actual.get().getTitle()).isEqualTo("new title");
+    }
+
+    @Test
+    void findVersionByIdAndAppuserId_given_id_and_appuser_id_then_return_version() {
+        var actual = noteRepository.findVersionByIdAndAppuserId(note.getId(), note.getAppuserId());
+
+        assertThat(actual).contains(0L);
+    }
+
+    @Test
+    void findVersionByIdAndAppuserId_given_not_found_id_then_return_empty_optional() {
+        var actual = noteRepository.findVersionByIdAndAppuserId(UUID.randomUUID(), note.getAppuserId());
+
+        assertThat(actual).isNotPresent();
+    }
+
+    @Test
+    void updateByIdAndAppuserIdAndVersion_given_current_version_then_update_note_and_increment_version() {
+        var actual = noteRepository.updateByIdAndAppuserIdAndVersion(note.getId(), note.getAppuserId(), 0, "new title", "new content");
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertThat(actual).isPresent();
+        assertThat(actual.get().getVersion()).isEqualTo(1L);
+        assertThat(testEntityManager.find(Note.class, note.getId()).getTitle()).isEqualTo("new title");
+    }
+
+    @Test
+    void updateByIdAndAppuserIdAndVersion_given_stale_version_then_return_empty_optional_without_updating() {
+        noteRepository.updateByIdAndAppuserId(note.getId(), note.getAppuserId(), "first title", "first content");
 
+        var actual = noteRepository.updateByIdAndAppuserIdAndVersion(note.getId(), note.getAppuserId(), 0, "new title", "new content");
         testEntityManager.flush();
         testEntityManager.clear();
 
-        var deletedNote = testEntityManager.find(Note.class, note.getId());
-        assertThat(deletedNote).isNull();
+        assertThat(actual).isNotPresent();
+        assertThat(testEntityManager.find(Note.class, note.getId()).getTitle()).isEqualTo("first title");
     }
 
     @Test
-    void deleteById_given_not_found_id_then_fail_without_throwing() {
-        assertThatCode(() -> {
-            noteRepository.deleteById(UUID.randomUUID());
-            testEntityManager.flush();
-        }).doesNotThrowAnyException();
+    void updateByIdAndAppuserId_given_id_and_appuser_id_then_update_and_return_note() {
+        var actual = noteRepository.updateByIdAndAppuserId(note.getId(), note.getAppuserId(), "new title", "new content");
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertThat(actual).isPresent();
+        assertThat(actual.get().getTitle()).isEqualTo("new title");
+
+        var updatedNote = testEntityManager.find(Note.class, note.getId());
+        assertThat(updatedNote.getTitle()).isEqualTo("new title");
+        assertThat(updatedNote.getContent()).isEqualTo("new content");
     }
 
     @Test
-    void deleteAllByAppuserId_given_appuser_id_then_delete_all_notes_with_appuser_id() {
-        noteRepository.deleteAllByAppuserId(note.getAppuserId());
+    void updateByIdAndAppuserId_given_id_and_other_appuser_id_then_return_empty_optional() {
+        var actual = noteRepository.updateByIdAndAppuserId(note.getId(), UUID.randomUUID(), "new title", "new content");
         testEntityManager.flush();
         testEntityManager.clear();
 
-        var deletedNote = testEntityManager.find(Note.class, note.getId());
-        assertThat(deletedNote).isNull();
+        assertThat(actual).isNotPresent();
+        assertThat(testEntityManager.find(Note.class, note.getId()).getTitle()).isEqualTo(note.getTitle());
     }
 
     @Test
-    void deleteAllByAppuserId_given_not_found_appuser_id_then_fail_without_throwing() {
-        assertThatCode(() -> {
-            noteRepository.deleteAllByAppuserId(UUID.randomUUID());
-            testEntityManager.flush();
-        }).doesNotThrowAnyException();
+    void deleteByIdAndAppuserId_given_id_and_appuser_id_then_delete_and_return_note() {
+        var actual = noteRepository.deleteByIdAndAppuserId(note.getId(), note.getAppuserId());
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertThat(actual).isPresent();
+        assertThat(actual.get().getId()).isEqualTo(note.getId());
+        assertThat(testEntityManager.find(Note.class, note.getId())).isNull();
+    }
+
+    @Test
+    void deleteByIdAndAppuserId_given_id_and_other_appuser_id_then_return_empty_optional() {
+        var actual = noteRepository.deleteByIdAndAppuserId(note.getId(), UUID.randomUUID());
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertThat(actual).isNotPresent();
+        assertThat(testEntityManager.find(Note.class, note.getId())).isNotNull();
+    }
+
+    @Test
+    void deleteChunkByAppuserId_given_appuser_id_then_delete_at_most_chunk_size_notes_with_appuser_id() {
+        var otherNote = new Note(note.getAppuserId(), "other title", "other content");
+        testEntityManager.persistAndFlush(otherNote);
+
+        var actual = noteRepository.deleteChunkByAppuserId(note.getAppuserId(), 1);
+        testEntityManager.clear();
+
+        var remainingNotes = noteRepository.findAllByAppuserIdAfterId(note.getAppuserId(), null);
+        assertThat(actual).isEqualTo(1);
+        assertThat(remainingNotes).hasSize(1);
+    }
+
+    @Test
+    void deleteChunkByAppuserId_given_not_found_appuser_id_then_delete_nothing() {
+        var actual = noteRepository.deleteChunkByAppuserId(UUID.randomUUID(), 1);
+
+        assertThat(actual).isZero();
     }
 
     @Test
@@ -133,6 +323,42 @@ class DefaultNoteRepositoryIntegrationTest {
         assertThat(createdNote).isNotNull();
     }
 
+    @Test
+    void saveAll_given_notes_to_create_then_save_notes_to_database() {
+        var appuserId = UUID.randomUUID();
+        var notesToCreate = IntStream
+                .range(0, 1200)
+                .mapToObj(i -> new Note(appuserId, "title " + i, "content " + i))
+                .toList();
+
+        noteRepository.saveAll(notesToCreate);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertThat(notesToCreate).allSatisfy(noteToCreate -> assertThat(noteToCreate.getId()).isNotNull());
+        assertThat(testEntityManager.find(Note.class, notesToCreate.getLast().getId())).isNotNull();
+    }
+
+    @Test
+    void copyAll_given_stream_of_notes_then_copy_notes_to_database() {
+        var appuserId = UUID.randomUUID();
+        var notesToCopy = Stream.of(
+                new Note(appuserId, "title, with comma", "content with \"quotes\""),
+                new Note(appuserId, "title 2", "content\nwith new line")
+        );
+
+        var actual = noteRepository.copyAll(notesToCopy);
+        testEntityManager.clear();
+
+        var copiedNotes = new ArrayList<Note>();
+        noteRepository.forEachByAppuserId(appuserId, copiedNotes::add);
+
+        assertThat(actual).isEqualTo(2);
+        assertThat(copiedNotes)
+                .extracting(Note::getContent)
+                .containsExactlyInAnyOrder("content with \"quotes\"", "content\nwith new line");
+    }
+
     @ParameterizedTest
     @MethodSource
     void save_given_invalid_note_to_create_then_throw_exception(Note invalidNoteToCreate) {
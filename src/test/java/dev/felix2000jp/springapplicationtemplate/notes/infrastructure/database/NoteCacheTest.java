@@ -0,0 +1,99 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.database;
+
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private NoteCache noteCache;
+
+    private NoteDto note;
+    private UUID noteId;
+    private UUID appuserId;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        noteCache = new NoteCache(meterRegistry, 1024 * 1024, 10);
+
+        noteId = UUID.randomUUID();
+        appuserId = UUID.randomUUID();
+        note = new NoteDto(noteId, "title", "content", 0L);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_given_cached_note_then_return_note_without_loading_it_again() {
+        noteCache.get(noteId, appuserId, this::loadNote);
+
+        var actual = noteCache.get(noteId, appuserId, this::loadNote);
+
+        assertThat(actual).contains(note);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "notes").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_given_not_found_note_then_return_empty_optional_without_caching_it() {
+        noteCache.get(noteId, appuserId, this::loadNothing);
+
+        var actual = noteCache.get(noteId, appuserId, this::loadNothing);
+
+        assertThat(actual).isNotPresent();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_given_other_appuser_id_then_load_note_again() {
+        noteCache.get(noteId, appuserId, this::loadNote);
+
+        noteCache.get(noteId, UUID.randomUUID(), this::loadNote);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evict_given_cached_note_then_load_note_again() {
+        noteCache.get(noteId, appuserId, this::loadNote);
+
+        noteCache.evict(noteId, appuserId);
+        noteCache.get(noteId, appuserId, this::loadNote);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evictAllByAppuserId_given_cached_notes_then_only_evict_notes_of_appuser() {
+        var otherNoteId = UUID.randomUUID();
+        var otherAppuserId = UUID.randomUUID();
+        noteCache.get(noteId, appuserId, this::loadNote);
+        noteCache.get(otherNoteId, otherAppuserId, this::loadNote);
+
+        noteCache.evictAllByAppuserId(appuserId);
+        noteCache.get(noteId, appuserId, this::loadNote);
+        noteCache.get(otherNoteId, otherAppuserId, this::loadNote);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    private Optional<NoteDto> loadNote() {
+        loads.incrementAndGet();
+        return Optional.of(note);
+    }
+
+    private Optional<NoteDto> loadNothing() {
+        loads.incrementAndGet();
+        return Optional.empty();
+    }
+
+}
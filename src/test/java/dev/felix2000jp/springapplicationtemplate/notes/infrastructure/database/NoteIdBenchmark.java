@@ -0,0 +1,122 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.database;
+
+import dev.felix2000jp.springapplicationtemplate.core.UuidV7Generator;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.postgresql.PGConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class NoteIdBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+    private static final int COPY_CHUNK_SIZE = 10_000;
+    private static final String INSERT_SQL = "INSERT INTO note (id, appuser_id, title, content) VALUES (?, ?, ?, ?)";
+    // note is partitioned, the stats are summed over the primary key of every partition weighted by its leaf pages
+    private static final String PRIMARY_KEY_STATS_SQL = """
+            SELECT sum(pg_relation_size(t.relid)),
+                   sum(s.avg_leaf_density * s.leaf_pages) / sum(s.leaf_pages),
+                   sum(s.leaf_fragmentation * s.leaf_pages) / sum(s.leaf_pages)
+            FROM pg_partition_tree('note_pkey') t, pgstatindex(t.relid::regclass::text) s
+            WHERE t.isleaf AND s.leaf_pages > 0
+            """;
+
+    @Param({"v4", "v7"})
+    private String ids;
+
+    @Param({"5000000"})
+    private int existingRows;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+    private Supplier<UUID> idGenerator;
+    private UUID appuserId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        postgres = new PostgreSQLContainer<>("postgres");
+        postgres.start();
+
+        Flyway
+                .configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .placeholders(Map.of("note-partition-count", "16"))
+                .load()
+                .migrate();
+
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        connection.createStatement().execute("CREATE EXTENSION IF NOT EXISTS pgstattuple");
+
+        idGenerator = ids.equals("v7") ? UuidV7Generator::next : UUID::randomUUID;
+        appuserId = UUID.randomUUID();
+
+        var copyApi = connection.unwrap(PGConnection.class).getCopyAPI();
+        for (var copied = 0; copied < existingRows; copied += COPY_CHUNK_SIZE) {
+            var rows = new StringBuilder();
+            for (var i = 0; i < COPY_CHUNK_SIZE; i++) {
+                rows.append(idGenerator.get()).append(',').append(appuserId).append(",title,content\n");
+            }
+
+            try {
+                copyApi.copyIn("COPY note (id, appuser_id, title, content) FROM STDIN (FORMAT csv)", new StringReader(rows.toString()));
+            } catch (IOException ex) {
+                throw new SQLException(ex);
+            }
+        }
+
+        connection.createStatement().execute("VACUUM ANALYZE note");
+        printPrimaryKeyStats("before");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        printPrimaryKeyStats("after");
+        connection.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] insertBatch() throws SQLException {
+        try (var statement = connection.prepareStatement(INSERT_SQL)) {
+            for (var i = 0; i < BATCH_SIZE; i++) {
+                statement.setObject(1, idGenerator.get());
+                statement.setObject(2, appuserId);
+                statement.setString(3, "title");
+                statement.setString(4, "content");
+                statement.addBatch();
+            }
+            return statement.executeBatch();
+        }
+    }
+
+    private void printPrimaryKeyStats(String moment) throws SQLException {
+        try (var resultSet = connection.createStatement().executeQuery(PRIMARY_KEY_STATS_SQL)) {
+            resultSet.next();
+            System.out.printf(
+                    "%n%s ids, primary key %s benchmark: %d MB, %.1f%% average leaf density, %.1f%% leaf fragmentation%n",
+                    ids,
+                    moment,
+                    resultSet.getLong(1) / (1024 * 1024),
+                    resultSet.getDouble(2),
+                    resultSet.getDouble(3)
+            );
+        }
+    }
+
+}
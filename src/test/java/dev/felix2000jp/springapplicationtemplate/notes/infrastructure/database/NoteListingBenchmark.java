@@ -0,0 +1,99 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.database;
+
+import dev.felix2000jp.springapplicationtemplate.notes.application.dtos.NoteDto;
+import dev.felix2000jp.springapplicationtemplate.notes.domain.Note;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class NoteListingBenchmark {
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+
+    private EntityManager entityManager;
+    private DefaultNoteQueries noteQueries;
+    private TransactionTemplate readOnlyTransaction;
+
+    private UUID appuserId;
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres");
+        postgres.start();
+
+        context = new SpringApplicationBuilder(BenchmarkConfiguration.class)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.flyway.user=" + postgres.getUsername(),
+                        "spring.flyway.password=" + postgres.getPassword(),
+                        "spring.docker.compose.enabled=false",
+                        "spring.main.web-application-type=none"
+                )
+                .run();
+
+        entityManager = context.getBean(EntityManager.class);
+        noteQueries = context.getBean(DefaultNoteQueries.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        appuserId = UUID.randomUUID();
+        var notes = IntStream
+                .range(0, 50)
+                .mapToObj(i -> new Note(appuserId, "title " + i, "content ".repeat(50) + i))
+                .toList();
+        context.getBean(NoteJpaRepository.class).saveAll(notes);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public List<NoteDto> listEntitiesThenMap() {
+        return readOnlyTransaction.execute(status -> entityManager
+                .createQuery("SELECT n FROM Note n WHERE n.appuserId = :appuserId ORDER BY n.id", Note.class)
+                .setParameter("appuserId", appuserId)
+                .setMaxResults(50)
+                .getResultStream()
+                .map(note -> new NoteDto(note.getId(), note.getTitle(), note.getContent(), note.getVersion()))
+                .toList()
+        );
+    }
+
+    @Benchmark
+    public List<NoteDto> listDtoProjection() {
+        return noteQueries.findAllByAppuserId(appuserId, 0);
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Note.class)
+    @Import(DefaultNoteQueries.class)
+    static class BenchmarkConfiguration {
+    }
+
+}
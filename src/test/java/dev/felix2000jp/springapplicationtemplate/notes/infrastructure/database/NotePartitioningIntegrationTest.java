@@ -0,0 +1,56 @@
+package dev.felix2000jp.springapplicationtemplate.notes.infrastructure.database;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Testcontainers
+class NotePartitioningIntegrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres");
+
+    @Value("${spring.flyway.placeholders.note-partition-count}")
+    private int notePartitionCount;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Test
+    void note_then_be_hash_partitioned_into_configured_partition_count() {
+        var strategy = testEntityManager
+                .getEntityManager()
+                .createNativeQuery("SELECT partstrat FROM pg_partitioned_table WHERE partrelid = 'note'::regclass")
+                .getSingleResult();
+        var partitions = testEntityManager
+                .getEntityManager()
+                .createNativeQuery("SELECT count(*) FROM pg_inherits WHERE inhparent = 'note'::regclass", Long.class)
+                .getSingleResult();
+
+        assertThat(strategy).hasToString("h");
+        assertThat(partitions).isEqualTo(notePartitionCount);
+    }
+
+    @Test
+    void note_given_query_by_appuser_id_then_scan_single_partition() {
+        var plan = testEntityManager
+                .getEntityManager()
+                .createNativeQuery("EXPLAIN SELECT * FROM note WHERE appuser_id = '%s' ORDER BY id".formatted(UUID.randomUUID()))
+                .getResultList();
+
+        assertThat(plan).filteredOn(line -> line.toString().contains(" on note_p")).hasSize(1);
+    }
+
+}